@@ -0,0 +1,28 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * تمام بنچمارک‌های NOSF (یا آن‌هایی که با regex آرگومان اول انتخاب شوند) را با پروفایلر GC اجرا می‌کند؛
+ * نتیجه، شامل نرخ تخصیص حافظه و تعداد/زمان GC هر بنچمارک، در jmh-result.json نوشته می‌شود.
+ *
+ * استفاده: java -jar target/benchmarks.jar [regex] [resultFile]
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*Benchmark";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+}
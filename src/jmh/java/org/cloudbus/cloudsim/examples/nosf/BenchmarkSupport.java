@@ -0,0 +1,41 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.nio.file.Path;
+
+/**
+ * تنظیمات مشترک بنچمارک‌ها. مسیرها نسبت به ریشهٔ پروژه‌اند و با -Dnosf.root قابل تغییرند.
+ */
+final class BenchmarkSupport {
+    static final Path ROOT = Path.of(System.getProperty("nosf.root", "."));
+    static final String CONFIG = ROOT.resolve("src/main/resources/simulation_config.xml").toString();
+
+    private BenchmarkSupport() {
+    }
+
+    static String workflowFile(String name) {
+        return ROOT.resolve("Workflows").resolve(name + ".xml").toString();
+    }
+
+    /**
+     * context تازه با پارامترهای فایل پیکربندی؛ بدون کش DAG، ردپا و خروجی متریک تا فقط خود موتور اندازه گرفته شود.
+     */
+    static SimulationContext newContext(int maxVMs, String dagCacheDir) {
+        SimulationContext base = SimulationContext.fromConfig(CONFIG);
+        return base.toBuilder()
+                .maxVMs(Math.max(maxVMs, base.getMaxVMs())).loaderThreads(1)
+                .dagCacheDir(dagCacheDir).traceFile(null).metricsFile(null)
+                .build();
+    }
+
+    static Workflow load(String name, SimulationContext context) {
+        try {
+            return Workflow.load(workflowFile(name), 0.0, context);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot load benchmark workflow " + name, e);
+        }
+    }
+
+    static void disableLogging() {
+        NOSFScheduler.setLogLevel(java.util.logging.Level.OFF);
+    }
+}
@@ -0,0 +1,58 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * جست‌وجوی VM مناسب بین activeVms ماشین در حال اجاره، برای تسک‌های پیش‌پردازش‌شدهٔ Montage_1000 به نوبت.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindSuitableVmBenchmark {
+    @Param({"10", "100", "600"})
+    public int activeVms;
+
+    private VMFactory vmFactory;
+    private List<Task> tasks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void leaseVms() {
+        BenchmarkSupport.disableLogging();
+        SimulationContext context = BenchmarkSupport.newContext(activeVms, null);
+        Workflow workflow = BenchmarkSupport.load("Montage_1000", context);
+        new NOSFScheduler(context).preprocessWorkflow(workflow);
+        tasks = workflow.getTasks();
+
+        vmFactory = new VMFactory(context);
+        for (int i = 0; i < activeVms; i++) {
+            if (vmFactory.leaseVM(tasks.get(i % tasks.size()), 0.0) == null) {
+                throw new IllegalStateException("Could only lease " + i + " of " + activeVms + " VMs");
+            }
+        }
+    }
+
+    @Benchmark
+    public Vm findSuitableVM() {
+        Task task = tasks.get(next);
+        next = next + 1 == tasks.size() ? 0 : next + 1;
+        return vmFactory.findSuitableVM(task, 0.0);
+    }
+}
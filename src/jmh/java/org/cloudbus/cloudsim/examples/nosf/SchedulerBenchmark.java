@@ -0,0 +1,81 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * پیش‌پردازش (EST/LCT/زیرمهلت) و اجرای کامل شبیه‌سازی روی گردش‌کارهای بزرگ همراه پروژه.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SchedulerBenchmark {
+    @State(Scope.Thread)
+    public static class Preprocess {
+        @Param({"Montage_1000", "Inspiral_1000", "CyberShake_1000", "psload_5084"})
+        public String workflow;
+
+        private NOSFScheduler scheduler;
+        private Workflow loaded;
+
+        @Setup(Level.Trial)
+        public void loadWorkflow() {
+            BenchmarkSupport.disableLogging();
+            SimulationContext context = BenchmarkSupport.newContext(0, null);
+            scheduler = new NOSFScheduler(context);
+            loaded = BenchmarkSupport.load(workflow, context);
+        }
+    }
+
+    // هر اجرای شبیه‌سازی وضعیت تسک‌ها و ساعت context را تغییر می‌دهد، پس هر فراخوانی نمونهٔ تازه می‌گیرد
+    @State(Scope.Thread)
+    public static class Simulation {
+        @Param({"Montage_1000", "Inspiral_1000", "CyberShake_1000", "psload_5084"})
+        public String workflow;
+
+        @Param({"false", "true"})
+        public boolean batchScheduling;
+
+        private NOSFScheduler scheduler;
+
+        @Setup(Level.Trial)
+        public void disableLogging() {
+            BenchmarkSupport.disableLogging();
+        }
+
+        @Setup(Level.Invocation)
+        public void prepareSimulation() {
+            SimulationContext context = BenchmarkSupport.newContext(0, null).toBuilder()
+                    .batchScheduling(batchScheduling)
+                    .build();
+            scheduler = new NOSFScheduler(context);
+            scheduler.submitWorkflow(BenchmarkSupport.load(workflow, context));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Workflow preprocessWorkflow(Preprocess state) {
+        state.scheduler.preprocessWorkflow(state.loaded);
+        return state.loaded;
+    }
+
+    @Benchmark
+    public SimulationResult runSimulation(Simulation state) {
+        return state.scheduler.runSimulation();
+    }
+}
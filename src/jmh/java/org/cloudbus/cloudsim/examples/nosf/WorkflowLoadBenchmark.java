@@ -0,0 +1,59 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * بارگذاری گردش‌کار با Workflow.loadFromXML: پارس کامل DAX یا خواندن از کش باینری DAG.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkflowLoadBenchmark {
+    @Param({"Montage_1000", "Inspiral_1000", "CyberShake_1000", "psload_5084"})
+    public String workflow;
+
+    @Param({"false", "true"})
+    public boolean dagCache;
+
+    private SimulationContext context;
+    private String[] files;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        BenchmarkSupport.disableLogging();
+        String cacheDir = null;
+        if (dagCache) {
+            cacheDir = Files.createTempDirectory("nosf-jmh-dag").toString();
+        }
+        context = BenchmarkSupport.newContext(0, cacheDir);
+        files = new String[]{BenchmarkSupport.workflowFile(workflow)};
+        if (dagCache) {
+            Workflow.loadFromXML(files, context); // ورودی کش پیش از اندازه‌گیری ساخته می‌شود
+        }
+    }
+
+    @Benchmark
+    public List<Workflow> loadFromXML() {
+        return Workflow.loadFromXML(files, context);
+    }
+}
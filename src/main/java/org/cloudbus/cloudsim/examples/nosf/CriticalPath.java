@@ -0,0 +1,110 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * مسیر بحرانی (طولانی‌ترین مسیر بر حسب زمان اجرای میانگین) یک {@link TaskGraph}.
+ * همه‌چیز در یک گذر تکراری O(V+E) روی ترتیب توپولوژیک محاسبه می‌شود: طول طولانی‌ترین مسیر تا هر تسک،
+ * خود مسیر بحرانی و مجموع زمان اجرای تخمینی (میانگین + انحراف معیار) که در توزیع زیرمهلت‌ها به کار می‌رود.
+ * نتیجه تغییرناپذیر است و در {@link Workflow#getCriticalPath()} کش می‌شود.
+ */
+public final class CriticalPath {
+    private final TaskGraph graph;
+    private final int[] topologicalOrder;
+    private final double[] pathLengthTo;
+    private final int[] path;
+    private final double length;
+    private final double totalEstimatedExecutionTime;
+
+    private CriticalPath(TaskGraph graph, int[] topologicalOrder, double[] pathLengthTo, int[] path,
+                         double length, double totalEstimatedExecutionTime) {
+        this.graph = graph;
+        this.topologicalOrder = topologicalOrder;
+        this.pathLengthTo = pathLengthTo;
+        this.path = path;
+        this.length = length;
+        this.totalEstimatedExecutionTime = totalEstimatedExecutionTime;
+    }
+
+    public static CriticalPath of(TaskGraph graph) {
+        int size = graph.size();
+        int[] order = graph.topologicalOrder();
+        double[] pathLengthTo = new double[size];
+        int[] bestPredecessor = new int[size];
+        double totalEstimatedExecutionTime = 0.0;
+        int exit = -1;
+        double length = 0.0;
+
+        for (int task : order) {
+            double longestPredecessorPath = 0.0;
+            bestPredecessor[task] = -1;
+            for (int k = 0; k < graph.getPredecessorCount(task); k++) {
+                int pred = graph.getPredecessor(task, k);
+                if (bestPredecessor[task] < 0 || pathLengthTo[pred] > longestPredecessorPath) {
+                    longestPredecessorPath = pathLengthTo[pred];
+                    bestPredecessor[task] = pred;
+                }
+            }
+            pathLengthTo[task] = graph.getMeanExecutionTime(task) + longestPredecessorPath;
+            totalEstimatedExecutionTime += graph.getMeanExecutionTime(task) + Math.sqrt(graph.getVarianceExecutionTime(task));
+
+            if (graph.getSuccessorCount(task) == 0 && (exit < 0 || pathLengthTo[task] > length)) {
+                exit = task;
+                length = pathLengthTo[task];
+            }
+        }
+
+        // مسیر از تسک خروجی با دنبال کردن بهترین پدر تا تسک ورودی بازسازی می‌شود
+        int pathSize = 0;
+        for (int task = exit; task >= 0; task = bestPredecessor[task]) {
+            pathSize++;
+        }
+        int[] path = new int[pathSize];
+        for (int task = exit, i = pathSize - 1; task >= 0; task = bestPredecessor[task], i--) {
+            path[i] = task;
+        }
+        return new CriticalPath(graph, order, pathLengthTo, path, length, totalEstimatedExecutionTime);
+    }
+
+    /**
+     * طول مسیر بحرانی: مجموع زمان اجرای میانگین تسک‌های آن.
+     */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * طول طولانی‌ترین مسیر از یک تسک ورودی تا انتهای تسک داده‌شده.
+     */
+    public double getPathLengthTo(int index) {
+        return pathLengthTo[index];
+    }
+
+    /**
+     * اندیس تسک‌های مسیر بحرانی از تسک ورودی تا تسک خروجی.
+     */
+    public int[] getPath() {
+        return path.clone();
+    }
+
+    public List<Task> getPathTasks() {
+        List<Task> tasks = new ArrayList<>(path.length);
+        for (int index : path) {
+            tasks.add(graph.task(index));
+        }
+        return tasks;
+    }
+
+    /**
+     * مجموع (میانگین + انحراف معیار) زمان اجرای تمام تسک‌ها.
+     */
+    public double getTotalEstimatedExecutionTime() {
+        return totalEstimatedExecutionTime;
+    }
+
+    // ترتیب توپولوژیک همین گذر؛ پیش‌پردازش زمان‌بند آن را دوباره محاسبه نمی‌کند (کپی نمی‌شود)
+    int[] topologicalOrder() {
+        return topologicalOrder;
+    }
+}
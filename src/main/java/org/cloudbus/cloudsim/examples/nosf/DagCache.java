@@ -0,0 +1,252 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * کش باینری گراف‌های DAX پارس‌شده، با کلید هش SHA-256 محتوای فایل منبع.
+ *
+ * قالب فایل (big-endian):
+ * <pre>
+ * int magic, int version, int taskCount, int edgeCount
+ * taskCount × (int length, UTF-8 bytes)   شناسهٔ تسک‌ها به ترتیب فایل
+ * double[taskCount]                       runtime
+ * long[taskCount]                         مجموع حجم فایل‌های ورودی
+ * int[taskCount + 1], int[edgeCount]      CSR پدران
+ * int[taskCount + 1], int[edgeCount]      CSR فرزندان
+ * long[edgeCount], long[edgeCount]        حجم دادهٔ هر یال، هم‌تراز با CSR پدران و فرزندان
+ * </pre>
+ * هر دو جهت ذخیره می‌شوند تا ترتیب لیست پدران و فرزندان دقیقاً مثل پارس XML باشد.
+ * مقادیر وابسته به پیکربندی (واریانس و زمان انتقال داده) هنگام بارگذاری با context همان اجرا محاسبه می‌شوند.
+ */
+public class DagCache {
+    private static final Logger LOGGER = Logger.getLogger(DagCache.class.getName());
+    private static final int MAGIC = 0x4E444147; // "NDAG"
+    private static final int VERSION = 2;
+
+    private final Path directory;
+
+    public DagCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * هش SHA-256 محتوای فایل به‌صورت hex.
+     */
+    public static String contentHash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private Path entryPath(String hash) {
+        return directory.resolve(hash + ".dag");
+    }
+
+    /**
+     * گراف ذخیره‌شده را با نگاشت حافظه می‌خواند؛ اگر ورودی وجود نداشته باشد یا معتبر نباشد null برمی‌گرداند.
+     */
+    public Workflow load(String hash, String workflowId, double arrivalTime, SimulationContext context) {
+        Path path = entryPath(hash);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int taskCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            // هر تسک و یال دست‌کم چهار بایت جا می‌گیرد؛ شمارندهٔ خراب نباید آرایهٔ عظیمی بسازد
+            if (taskCount < 0 || edgeCount < 0
+                    || taskCount > buffer.remaining() / Integer.BYTES || edgeCount > buffer.remaining() / Integer.BYTES) {
+                return invalid(path, "bad task or edge count");
+            }
+
+            String[] ids = new String[taskCount];
+            for (int i = 0; i < taskCount; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return invalid(path, "bad id length " + length);
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                ids[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            double[] runtimes = new double[taskCount];
+            buffer.asDoubleBuffer().get(runtimes);
+            buffer.position(buffer.position() + taskCount * Double.BYTES);
+            long[] inputSizes = new long[taskCount];
+            buffer.asLongBuffer().get(inputSizes);
+            buffer.position(buffer.position() + taskCount * Long.BYTES);
+
+            TaskGraph.Builder builder = new TaskGraph.Builder();
+            for (int i = 0; i < taskCount; i++) {
+                Workflow.addTask(builder, ids[i], runtimes[i], inputSizes[i], context);
+            }
+
+            // آرایه‌های CSR بدون تبدیل مستقیماً به گراف داده می‌شوند
+            int[] predOffsets = readInts(buffer, taskCount + 1);
+            int[] preds = readInts(buffer, edgeCount);
+            int[] succOffsets = readInts(buffer, taskCount + 1);
+            int[] succs = readInts(buffer, edgeCount);
+            long[] predBytes = readLongs(buffer, edgeCount);
+            long[] succBytes = readLongs(buffer, edgeCount);
+            if (buffer.hasRemaining()) {
+                return invalid(path, buffer.remaining() + " trailing bytes");
+            }
+            // ورودی خراب نباید گراف ناسازگار بسازد؛ آن را مثل نبودن ورودی در نظر می‌گیریم
+            if (!isValidCsr(predOffsets, preds, taskCount) || !isValidCsr(succOffsets, succs, taskCount)) {
+                return invalid(path, "inconsistent CSR arrays");
+            }
+            Workflow workflow = new Workflow(workflowId, arrivalTime, 0.0);
+            builder.build(workflow, Workflow.transferRate(context), predOffsets, preds, succOffsets, succs, predBytes, succBytes);
+            return workflow;
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            // position() با طول خارج از محدوده IllegalArgumentException می‌دهد
+            LOGGER.log(Level.WARNING, "Ignoring unreadable DAG cache entry " + path, e);
+            return null;
+        }
+    }
+
+    private static Workflow invalid(Path path, String reason) {
+        LOGGER.warning("Ignoring invalid DAG cache entry " + path + ": " + reason);
+        return null;
+    }
+
+    /**
+     * آفست‌ها باید از صفر شروع شوند، نزولی نباشند و به تعداد یال‌ها ختم شوند؛ هر شناسه باید تسک معتبری باشد.
+     */
+    private static boolean isValidCsr(int[] offsets, int[] targets, int taskCount) {
+        if (offsets[0] != 0 || offsets[taskCount] != targets.length) {
+            return false;
+        }
+        for (int i = 0; i < taskCount; i++) {
+            if (offsets[i] > offsets[i + 1]) {
+                return false;
+            }
+        }
+        for (int target : targets) {
+            if (target < 0 || target >= taskCount) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static long[] readLongs(ByteBuffer buffer, int count) {
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + count * Long.BYTES);
+        return values;
+    }
+
+    /**
+     * گراف پارس‌شده را ذخیره می‌کند. فایل ابتدا موقت نوشته و سپس جابه‌جا می‌شود
+     * تا اجراهای هم‌زمان هیچ‌وقت ورودی نیمه‌کاره نبینند.
+     */
+    public void store(String hash, Workflow workflow, List<Long> inputSizes) {
+        TaskGraph graph = workflow.getGraph();
+        int taskCount = graph.size();
+        int edgeCount = graph.preds.length;
+        byte[][] ids = new byte[taskCount][];
+        long size = 4L * Integer.BYTES;
+        for (int i = 0; i < taskCount; i++) {
+            ids[i] = graph.ids[i].getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + ids[i].length;
+        }
+        size += (long) taskCount * (Double.BYTES + Long.BYTES) + 2L * (taskCount + 1 + edgeCount) * Integer.BYTES
+                + 2L * edgeCount * Long.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(taskCount).putInt(edgeCount);
+        for (byte[] id : ids) {
+            buffer.putInt(id.length).put(id);
+        }
+        for (int i = 0; i < taskCount; i++) {
+            buffer.putDouble(graph.meanExecutionTime[i]);
+        }
+        for (long inputSize : inputSizes) {
+            buffer.putLong(inputSize);
+        }
+        putInts(buffer, graph.predOffsets);
+        putInts(buffer, graph.preds);
+        putInts(buffer, graph.succOffsets);
+        putInts(buffer, graph.succs);
+        putLongs(buffer, graph.predBytes);
+        putLongs(buffer, graph.succBytes);
+        buffer.flip();
+
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, hash, ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, entryPath(hash), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not write DAG cache entry for " + workflow.getId(), e);
+        } finally {
+            // فایل موقت ناتمام (مثلاً دیسک پر یا شکست جابه‌جایی) نباید در پوشهٔ کش بماند
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Could not delete " + temp, e);
+                }
+            }
+        }
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    private static void putLongs(ByteBuffer buffer, long[] values) {
+        buffer.asLongBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Long.BYTES);
+    }
+}
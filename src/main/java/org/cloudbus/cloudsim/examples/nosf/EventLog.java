@@ -0,0 +1,183 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * لاگ ناهمگام رویدادهای شبیه‌سازی.
+ * هر رویداد فقط (سطح، قالب، آرگومان‌ها) است و در صورت فعال بودن سطح در یک بافر حلقوی بدون قفل
+ * (چند تولیدکننده، یک مصرف‌کننده) ثبت می‌شود؛ String.format و I/O روی نخ نویسندهٔ پس‌زمینه انجام می‌شوند
+ * که رکوردها را دسته‌ای در کنسول (stderr) و فایل simulation.log می‌نویسد.
+ *
+ * آرگومان‌ها در لحظهٔ ثبت باید مقدار نهایی باشند (عدد یا رشته)، نه اشیای قابل تغییر مثل Task.
+ * اگر بافر پر باشد تولیدکننده تا آزاد شدن جا منتظر می‌ماند و هیچ رکوردی دور ریخته نمی‌شود.
+ * نویسنده وقتی صف خالی است بدون مهلت park می‌شود و اولین رکوردی که بعد از آن ثبت شود بیدارش می‌کند.
+ * قالب یا آرگومان نامعتبر فقط همان رکورد را خراب می‌کند: قالب خام همراه خطا نوشته می‌شود.
+ */
+public final class EventLog {
+    private static final int CAPACITY = 1 << 14;
+    private static final int MASK = CAPACITY - 1;
+    private static final int BATCH_SIZE = 1024;
+    private static final long FLUSH_PARK_NANOS = 200_000;
+    private static final Path LOG_FILE = Path.of("simulation.log");
+
+    private static volatile int threshold = Level.INFO.intValue();
+
+    // صف Vyukov: خانهٔ i با sequence == seq آمادهٔ نوشتن و با sequence == seq + 1 آمادهٔ خواندن است
+    private static final String[] templates = new String[CAPACITY];
+    private static final Object[][] arguments = new Object[CAPACITY][];
+    private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong tail = new AtomicLong();
+    private static volatile long written; // تعداد رکوردهایی که نوشته و flush شده‌اند
+    private static volatile boolean writerIdle; // نویسنده صف را خالی دیده و park شده (یا در حال park است)
+
+    private static final Thread writer;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences.set(i, i);
+        }
+        writer = new Thread(EventLog::drainLoop, "nosf-event-log");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(EventLog::flush, "nosf-event-log-flush"));
+    }
+
+    private EventLog() {
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level.intValue();
+    }
+
+    public static boolean isLoggable(Level level) {
+        return level.intValue() >= threshold && threshold != Level.OFF.intValue();
+    }
+
+    public static void info(String template, Object... args) {
+        log(Level.INFO, template, args);
+    }
+
+    public static void fine(String template, Object... args) {
+        log(Level.FINE, template, args);
+    }
+
+    public static void warning(String template, Object... args) {
+        log(Level.WARNING, template, args);
+    }
+
+    /**
+     * رویداد را ثبت می‌کند؛ اگر آرگومانی نباشد قالب همان‌طور که هست نوشته می‌شود.
+     */
+    public static void log(Level level, String template, Object... args) {
+        if (!isLoggable(level)) {
+            return;
+        }
+        long seq = tail.getAndIncrement();
+        int slot = (int) (seq & MASK);
+        while (sequences.get(slot) != seq) {
+            if (!writer.isAlive()) {
+                // نویسنده مرده و جایی آزاد نمی‌شود؛ رکورد مستقیم در کنسول نوشته می‌شود
+                System.err.println(format(template, args));
+                return;
+            }
+            // بافر پر است؛ منتظر نویسنده می‌مانیم
+            LockSupport.unpark(writer);
+            Thread.onSpinWait();
+        }
+        templates[slot] = template;
+        arguments[slot] = args;
+        sequences.set(slot, seq + 1);
+        // writerIdle پس از انتشار خوانده می‌شود و نویسنده پس از اعلام آن صف را دوباره می‌بیند، پس رکورد گم نمی‌شود
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * تا نوشته شدن تمام رکوردهای ثبت‌شده تا این لحظه منتظر می‌ماند (اگر نویسنده زنده باشد).
+     */
+    public static void flush() {
+        long target = tail.get();
+        while (written < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FLUSH_PARK_NANOS);
+        }
+    }
+
+    private static String format(String template, Object[] args) {
+        if (args.length == 0) {
+            return template;
+        }
+        try {
+            return String.format(template, args);
+        } catch (RuntimeException e) {
+            return template + " [log format error: " + e + "]";
+        }
+    }
+
+    private static void drainLoop() {
+        PrintStream console = System.err;
+        Writer file = null;
+        StringBuilder batch = new StringBuilder(64 * 1024);
+        long head = 0;
+        while (true) {
+            int count = 0;
+            while (count < BATCH_SIZE) {
+                int slot = (int) (head & MASK);
+                if (sequences.get(slot) != head + 1) {
+                    break;
+                }
+                Object[] args = arguments[slot];
+                String template = templates[slot];
+                batch.append(format(template, args)).append(System.lineSeparator());
+                templates[slot] = null;
+                arguments[slot] = null;
+                sequences.set(slot, head + CAPACITY);
+                head++;
+                count++;
+            }
+
+            if (count > 0) {
+                console.append(batch);
+                try {
+                    if (file == null) {
+                        file = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(LOG_FILE), StandardCharsets.UTF_8), 64 * 1024);
+                    }
+                    file.append(batch);
+                } catch (IOException e) {
+                    console.println("Cannot write " + LOG_FILE + ": " + e);
+                }
+                batch.setLength(0);
+            }
+
+            if (count < BATCH_SIZE) {
+                // صف خالی است: خروجی‌ها flush می‌شوند تا flush() و خوانندگان فایل همه‌چیز را ببینند
+                console.flush();
+                if (file != null) {
+                    try {
+                        file.flush();
+                    } catch (IOException e) {
+                        console.println("Cannot write " + LOG_FILE + ": " + e);
+                    }
+                }
+                written = head;
+                writerIdle = true;
+                if (sequences.get((int) (head & MASK)) != head + 1) {
+                    LockSupport.park();
+                }
+                writerIdle = false;
+            }
+        }
+    }
+}
@@ -13,7 +13,7 @@ public class Main {
         NOSFScheduler scheduler = new NOSFScheduler(configFile);
         
         // بارگذاری تمام گردش‌کارها
-        List<Workflow> workflows = Workflow.loadFromXML(workflowFiles);
+        List<Workflow> workflows = Workflow.loadFromXML(workflowFiles, scheduler.getContext());
         for (Workflow workflow : workflows) {
             scheduler.submitWorkflow(workflow);
         }
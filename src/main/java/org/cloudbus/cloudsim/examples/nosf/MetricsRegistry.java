@@ -0,0 +1,237 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * شمارنده‌ها، مقادیر لحظه‌ای و هیستوگرام‌های موتور NOSF برای یک اجرا، با خروجی JSON یا متن Prometheus.
+ * هر زمان‌بند registry مخصوص خودش را دارد و مثل خود شبیه‌سازی تک‌نخی است (بدون هم‌گام‌سازی).
+ */
+public final class MetricsRegistry {
+    private final Map<String, Metric> metrics = new LinkedHashMap<>();
+
+    private abstract static class Metric {
+        final String name;
+        final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+    }
+
+    public static final class Counter extends Metric {
+        private long value;
+
+        Counter(String name, String help) {
+            super(name, help);
+        }
+
+        public void increment() { value++; }
+        public void add(long amount) { value += amount; }
+        public long get() { return value; }
+    }
+
+    public static final class Gauge extends Metric {
+        private double value;
+
+        Gauge(String name, String help) {
+            super(name, help);
+        }
+
+        public void set(double value) { this.value = value; }
+        public double get() { return value; }
+    }
+
+    /**
+     * هیستوگرام لگاریتمی-خطی (مثل HDR): مقادیر کمتر از ۱۶ دقیق و بقیه در ۱۶ زیرسطل خطی هر توان ۲ شمرده می‌شوند،
+     * پس خطای نسبی هر صدک حداکثر 1/16 است و حافظه برای تمام بازهٔ long ثابت (۹۶۰ سطل) می‌ماند.
+     */
+    public static final class Histogram extends Metric {
+        private static final int SUB_BUCKET_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final long[] counts = new long[BUCKETS];
+        private long count;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        Histogram(String name, String help) {
+            super(name, help);
+        }
+
+        public void record(long value) {
+            value = Math.max(0, value);
+            counts[bucketOf(value)]++;
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        }
+
+        // بزرگ‌ترین مقداری که در سطل index قرار می‌گیرد
+        static long upperBoundOf(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+            return lower + (1L << shift) - 1;
+        }
+
+        public long getCount() { return count; }
+        public long getSum() { return sum; }
+        public long getMin() { return count == 0 ? 0 : min; }
+        public long getMax() { return count == 0 ? 0 : max; }
+        public double getMean() { return count == 0 ? 0.0 : (double) sum / count; }
+
+        /**
+         * صدک q (بین ۰ و ۱)؛ کران بالای سطلی که صدک در آن است، محدود به بیشینهٔ واقعی.
+         */
+        public long getQuantile(double q) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+
+    public Counter counter(String name, String help) {
+        return register(new Counter(name, help));
+    }
+
+    public Gauge gauge(String name, String help) {
+        return register(new Gauge(name, help));
+    }
+
+    public Histogram histogram(String name, String help) {
+        return register(new Histogram(name, help));
+    }
+
+    /**
+     * شمارندهٔ ثبت‌شده با این نام، یا null.
+     */
+    public Counter getCounter(String name) {
+        return metrics.get(name) instanceof Counter counter ? counter : null;
+    }
+
+    /**
+     * هیستوگرام ثبت‌شده با این نام، یا null.
+     */
+    public Histogram getHistogram(String name) {
+        return metrics.get(name) instanceof Histogram histogram ? histogram : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <M extends Metric> M register(M metric) {
+        Metric existing = metrics.putIfAbsent(metric.name, metric);
+        if (existing == null) {
+            return metric;
+        }
+        if (existing.getClass() != metric.getClass()) {
+            throw new IllegalArgumentException("Metric " + metric.name + " is already registered with another type");
+        }
+        return (M) existing;
+    }
+
+    public String toJson() {
+        StringBuilder counters = new StringBuilder();
+        StringBuilder gauges = new StringBuilder();
+        StringBuilder histograms = new StringBuilder();
+        for (Metric metric : metrics.values()) {
+            if (metric instanceof Counter counter) {
+                separate(counters).append("    \"").append(counter.name).append("\": ").append(counter.get());
+            } else if (metric instanceof Gauge gauge) {
+                separate(gauges).append("    \"").append(gauge.name).append("\": ").append(number(gauge.get()));
+            } else if (metric instanceof Histogram histogram) {
+                separate(histograms).append("    \"").append(histogram.name).append("\": {")
+                        .append("\"count\": ").append(histogram.getCount())
+                        .append(", \"sum\": ").append(histogram.getSum())
+                        .append(", \"min\": ").append(histogram.getMin())
+                        .append(", \"mean\": ").append(number(histogram.getMean()))
+                        .append(", \"p50\": ").append(histogram.getQuantile(0.50))
+                        .append(", \"p90\": ").append(histogram.getQuantile(0.90))
+                        .append(", \"p99\": ").append(histogram.getQuantile(0.99))
+                        .append(", \"p999\": ").append(histogram.getQuantile(0.999))
+                        .append(", \"max\": ").append(histogram.getMax()).append('}');
+            }
+        }
+        return "{\n  \"counters\": {\n" + counters + "\n  },\n  \"gauges\": {\n" + gauges
+                + "\n  },\n  \"histograms\": {\n" + histograms + "\n  }\n}\n";
+    }
+
+    private static StringBuilder separate(StringBuilder builder) {
+        return builder.isEmpty() ? builder : builder.append(",\n");
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.6g", value) : "null";
+    }
+
+    /**
+     * قالب متنی Prometheus؛ برای هیستوگرام‌ها فقط سطل‌های غیرخالی (به‌صورت تجمعی) نوشته می‌شوند.
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        for (Metric metric : metrics.values()) {
+            out.append("# HELP ").append(metric.name).append(' ').append(metric.help).append('\n');
+            if (metric instanceof Counter counter) {
+                out.append("# TYPE ").append(metric.name).append(" counter\n");
+                out.append(metric.name).append(' ').append(counter.get()).append('\n');
+            } else if (metric instanceof Gauge gauge) {
+                out.append("# TYPE ").append(metric.name).append(" gauge\n");
+                out.append(metric.name).append(' ').append(gauge.get()).append('\n');
+            } else if (metric instanceof Histogram histogram) {
+                out.append("# TYPE ").append(metric.name).append(" histogram\n");
+                long cumulative = 0;
+                for (int i = 0; i < Histogram.BUCKETS; i++) {
+                    if (histogram.counts[i] > 0) {
+                        cumulative += histogram.counts[i];
+                        out.append(metric.name).append("_bucket{le=\"").append(Histogram.upperBoundOf(i)).append("\"} ")
+                                .append(cumulative).append('\n');
+                    }
+                }
+                out.append(metric.name).append("_bucket{le=\"+Inf\"} ").append(histogram.getCount()).append('\n');
+                out.append(metric.name).append("_sum ").append(histogram.getSum()).append('\n');
+                out.append(metric.name).append("_count ").append(histogram.getCount()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * اگر نام فایل با .json تمام شود JSON و در غیر این صورت متن Prometheus می‌نویسد.
+     */
+    public void export(Path file) {
+        String content = file.getFileName().toString().endsWith(".json") ? toJson() : toPrometheus();
+        try {
+            Files.writeString(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write metrics to " + file, e);
+        }
+    }
+}
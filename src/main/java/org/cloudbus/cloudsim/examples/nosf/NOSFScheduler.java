@@ -1,106 +1,151 @@
 package org.cloudbus.cloudsim.examples.nosf;
 
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.logging.ConsoleHandler;
-import java.util.logging.FileHandler;
+import java.util.Set;
 import java.util.logging.Level;
-import java.util.logging.LogRecord;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
-import javax.xml.parsers.DocumentBuilderFactory;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 public class NOSFScheduler {
-    private final List<Workflow> workflows = new ArrayList<>();
+    // گردش‌کارهای زنده به ترتیب ورود؛ اگر retainCompletedTasks خاموش باشد گردش‌کار تمام‌شده در O(1) حذف می‌شود
+    private final Set<Workflow> workflows = new LinkedHashSet<>();
+    private WorkflowArrivals arrivals;
+    private Workflow nextArrival; // تنها گردش‌کار آیندهٔ جریان ورود که در صف رویدادهاست
     private final PriorityQueue<Task> readyTasks = new PriorityQueue<>(Comparator.comparingDouble(Task::getEarliestStartTime));
+    // تسک‌هایی که VM نگرفتند، به ترتیب انتظار؛ فقط وقتی به readyTasks برمی‌گردند که VMی آزاد یا اجاره شود که
+    // بتواند آن‌ها را تا زیرمهلت تمام کند، یا جا برای اجارهٔ VM جدید باز شود
+    private record WaitingTask(long sequence, Task task) {}
+    private final List<WaitingTask> waitingTasks = new ArrayList<>();
+    // منتظرهایی که حتی با داده و VM آماده تا زیرمهلت تمام نمی‌شوند؛ هیچ VMی جایشان نمی‌دهد، پس wakeWaitingTasks
+    // آن‌ها را پیمایش نمی‌کند و فقط جای خالی اجاره (به ترتیب انتظار، هم‌پای waitingTasks) بیدارشان می‌کند
+    private final PriorityQueue<WaitingTask> lateWaitingTasks = new PriorityQueue<>(Comparator.comparingLong(WaitingTask::sequence));
+    private long waitSequence = 0;
+    private final Map<Task, Double> waitingSince = new HashMap<>(); // زمان اولین انتظار تا وقتی تسک VM بگیرد
+    // زمان آماده شدن پیش‌بینی‌شدهٔ تسک‌ها برای پیش‌اجاره؛ زمان در رکورد ثابت می‌ماند چون EST خود تسک بازنویسی می‌شود.
+    // observed یعنی زمان از بازخورد اتمام آخرین پدر آمده است؛ پیش‌بینی پیش‌پردازش پس از آماده شدن تسک کهنه است
+    private record Prediction(double readyTime, Task task, boolean observed) {}
+    private final PriorityQueue<Prediction> predictions = new PriorityQueue<>(Comparator.comparingDouble(Prediction::readyTime));
+    private final Map<Vm, Double> unusedPreProvisioned = new HashMap<>(); // VM پیش‌اجاره‌شده → هزینهٔ دورهٔ اول
+    private double preProvisionCommittedCost = 0.0;
+    private double hiddenBootTime = 0.0;
+    private double preProvisionWastedCost = 0.0;
+    private final PriorityQueue<SimulationEvent> events = new PriorityQueue<>();
+    private long eventSequence = 0;
+    private int pendingWorkEvents = 0; // رویدادهای ورود گردش‌کار و اتمام تسک که هنوز پردازش نشده‌اند
+    private double scheduledBillingCheckTime = Double.MAX_VALUE; // زمان نزدیک‌ترین رویداد BILLING_CHECK در صف
+    private final SimulationContext context;
     private final VMFactory vmFactory;
-    private static double currentTime = 0.0;
+    private SchedulingTrace trace; // فقط وقتی traceFile در پیکربندی آمده باشد، در طول runSimulation باز است
     private double totalCost = 0.0;
     private double totalEnergyConsumption = 0.0;
+    private double totalExecutionTime = 0.0;
     private double resourceUtilization = 0.0;
-    private static double billingPeriod;
-    private static int bandwidthMbps;
-    private static int normalizationFactor;
-    private static double varianceFactorAlpha;
-    private final double deadlineFactorBeta;
-    private static double estimationFactorEta;
-    private static final Logger LOGGER = Logger.getLogger(NOSFScheduler.class.getName());
-
-    static {
-        try {
-            LOGGER.setLevel(Level.INFO);
-            LOGGER.setUseParentHandlers(false);
-
-            ConsoleHandler consoleHandler = new ConsoleHandler();
-            consoleHandler.setLevel(Level.INFO);
-            consoleHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    return String.format("%s%n", record.getMessage());
-                }
-            });
-            LOGGER.addHandler(consoleHandler);
-
-            FileHandler fileHandler = new FileHandler("simulation.log", false);
-            fileHandler.setLevel(Level.INFO);
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord record) {
-                    return String.format("%s%n", record.getMessage());
-                }
-            });
-            LOGGER.addHandler(fileHandler);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        LOGGER.info("Simulation started at: " + java.time.LocalDateTime.now());
-    }
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final MetricsRegistry.Histogram decisionNanos = metrics.histogram("nosf_schedule_decision_nanos",
+            "Wall-clock nanoseconds per scheduling decision");
+    private final MetricsRegistry.Histogram readyQueueDepth = metrics.histogram("nosf_ready_queue_depth",
+            "Ready tasks waiting when a scheduling decision starts");
+    private final MetricsRegistry.Counter requeuedTasks = metrics.counter("nosf_task_requeued_total",
+            "Times a task was moved to the wait list because no VM could be found or leased");
+    private final MetricsRegistry.Histogram waitMillis = metrics.histogram("nosf_task_wait_millis",
+            "Simulated milliseconds a task spent on the wait list before it was placed");
+    private final MetricsRegistry.Counter preProvisionedVms = metrics.counter("nosf_vm_preprovisioned_total",
+            "VMs leased ahead of predicted demand");
+    private final MetricsRegistry.Counter preProvisionedUsed = metrics.counter("nosf_vm_preprovisioned_used_total",
+            "Pre-provisioned VMs that received at least one task");
+    private final MetricsRegistry.Histogram batchRoundSize = metrics.histogram("nosf_batch_round_size",
+            "Ready tasks matched together in one batch scheduling round");
+    // آمار تجمعی گردش‌کارهای تمام‌شده
+    private int submittedWorkflows = 0;
+    private int completedWorkflows = 0;
+    private long deadlineViolations = 0;
+    private double makespan = 0.0;
+    private double totalTaskDelay = 0.0;
+    private long completedTaskCount = 0;
+    // لاگر والد کلاس‌های پکیج که هنوز از JUL استفاده می‌کنند (خطاها و پیشرفت ابزارها)
+    private static final Logger PACKAGE_LOGGER = Logger.getLogger(NOSFScheduler.class.getPackageName());
 
     public NOSFScheduler(String configFile) {
-        Document doc;
-        try {
-            doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(configFile);
-            Element simParams = (Element) doc.getElementsByTagName("simulationParameters").item(0);
-            int maxVMs = Integer.parseInt(simParams.getElementsByTagName("maxVMs").item(0).getTextContent());
-            this.normalizationFactor = Integer.parseInt(simParams.getElementsByTagName("NormalizationFactor").item(0).getTextContent());
-            this.bandwidthMbps = Integer.parseInt(simParams.getElementsByTagName("bandwidthMbps").item(0).getTextContent());
-            this.billingPeriod = Double.parseDouble(simParams.getElementsByTagName("billingPeriod").item(0).getTextContent());
-            this.varianceFactorAlpha = Double.parseDouble(simParams.getElementsByTagName("varianceFactorAlpha").item(0).getTextContent());
-            this.deadlineFactorBeta = Double.parseDouble(simParams.getElementsByTagName("deadlineFactorBeta").item(0).getTextContent());
-            this.estimationFactorEta = Double.parseDouble(simParams.getElementsByTagName("estimationFactorEta").item(0).getTextContent());
-            this.vmFactory = new VMFactory(configFile, maxVMs);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load simulation config", e);
-        }
+        this(SimulationContext.fromConfig(configFile));
+    }
+
+    public NOSFScheduler(SimulationContext context) {
+        this.context = context;
+        this.vmFactory = new VMFactory(context, metrics);
+        this.vmFactory.setLeaseListener(this::onVmLeased);
+    }
+
+    public SimulationContext getContext() {
+        return context;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * سطح لاگ تمام کلاس‌های NOSF را تنظیم می‌کند (مثلاً Level.OFF برای اجراهای انبوه).
+     */
+    public static void setLogLevel(Level level) {
+        EventLog.setLevel(level);
+        PACKAGE_LOGGER.setLevel(level);
     }
 
     public void submitWorkflow(Workflow workflow) {
         workflows.add(workflow);
+        submittedWorkflows++;
         preprocessWorkflow(workflow);
-        workflow.getTasks().stream()
-                .filter(Task::isReady)
-                .forEach(readyTasks::add);
+        scheduleEvent(SimulationEvent.workflowArrival(workflow.getArrivalTime(), eventSequence++, workflow));
     }
 
-    private void preprocessWorkflow(Workflow workflow) {
-        for (Task task : workflow.getTasks()) {
-            task.setEarliestStartTime(calculateEarliestStartTime(task));
+    /**
+     * گردش‌کارها را به‌صورت تدریجی از جریان ورود می‌گیرد: گردش‌کار بعدی فقط وقتی بارگذاری می‌شود که
+     * رویداد ورود قبلی پردازش شده باشد.
+     */
+    public void submitArrivals(WorkflowArrivals arrivals) {
+        this.arrivals = arrivals;
+        pullNextArrival();
+    }
+
+    private void pullNextArrival() {
+        nextArrival = arrivals.next();
+        if (nextArrival == null) {
+            arrivals = null;
+            return;
         }
-        for (Task task : workflow.getTasks()) {
-            task.setLatestCompletionTime(calculateLatestCompletionTime(task));
+        if (nextArrival.getArrivalTime() < context.getCurrentTime()) {
+            throw new IllegalStateException("Workflow " + nextArrival.getId() + " arrives at " + nextArrival.getArrivalTime()
+                    + ", before the current simulation time " + context.getCurrentTime());
         }
-        for (Task task : workflow.getTasks()) {
-            task.setSubDeadline(calculateSubDeadline(task));
+        submitWorkflow(nextArrival);
+    }
+
+    // پیش‌پردازش مستقیماً روی ستون‌های TaskGraph و با اندیس‌های int انجام می‌شود؛
+    // پکیج‌خصوصی تا بنچمارک‌های JMH (src/jmh/java) بتوانند آن را جداگانه اندازه بگیرند
+    void preprocessWorkflow(Workflow workflow) {
+        TaskGraph graph = workflow.getGraph();
+        int[] order = workflow.getCriticalPath().topologicalOrder();
+
+        // گذر رو به جلو: EST هر تسک از روی پدرانش که قبلاً محاسبه شده‌اند
+        for (int task : order) {
+            graph.setEarliestStartTime(task, calculateEarliestStartTime(graph, task));
+        }
+
+        // گذر رو به عقب: LCT هر تسک از روی فرزندانش که قبلاً محاسبه شده‌اند
+        for (int i = order.length - 1; i >= 0; i--) {
+            int task = order[i];
+            graph.setLatestCompletionTime(task, calculateLatestCompletionTime(graph, task));
+        }
+
+        for (int task : order) {
+            graph.setSubDeadline(task, calculateSubDeadline(graph, task));
         }
     }
 
@@ -108,163 +153,428 @@ public class NOSFScheduler {
         return task.getMeanExecutionTime() + Math.sqrt(task.getVarianceExecutionTime());
     }
 
+    private double getEstimatedExecutionTime(TaskGraph graph, int task) {
+        return graph.getMeanExecutionTime(task) + Math.sqrt(graph.getVarianceExecutionTime(task));
+    }
 
+    // فرض: EST تمام پدران در گذر توپولوژیک قبلاً مقداردهی شده است
+    private double calculateEarliestStartTime(TaskGraph graph, int task) {
+        int predecessorCount = graph.getPredecessorCount(task);
+        if (predecessorCount == 0) {
+            return graph.getWorkflow().getArrivalTime();
+        }
+        double est = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < predecessorCount; k++) {
+            int pred = graph.getPredecessor(task, k);
+            double estPred = graph.getEarliestStartTime(pred) + getEstimatedExecutionTime(graph, pred) + graph.getPredecessorTransferTime(task, k);
+            if (estPred > est) {
+                est = estPred;
+            }
+        }
+        return est;
+    }
 
-    // EST ------
-    
-    private Queue<Task> estQueue = new LinkedList<>(); // صف برای پیمایش گره‌ها
-    private Map<Task, Double> estMap = new HashMap<>(); // نقشه برای نگهداری EST گره‌ها
-
-    private double calculateEarliestStartTime(Task task) {
-        estQueue.add(task);
-        estMap.put(task, task.getWorkflow().getArrivalTime()); 
-    
-        while (!estQueue.isEmpty()) {
-            Task currentTask = estQueue.poll();
-            // System.out.println("Processing task: " + currentTask.getId());
-    
-            // برای تمام پدرها (Predecessors) گره جاری، EST جدید رو محاسبه کن
-            for (Task pred : currentTask.getPredecessors()) {
-                if (!estMap.containsKey(pred)) {
-                    estMap.put(pred, task.getWorkflow().getArrivalTime()); 
-                }
-                
-                double estPred = estMap.get(pred) + getEstimatedExecutionTime(pred) + pred.getDataTransferTime(currentTask);
-                if (!estMap.containsKey(currentTask) || estPred > estMap.get(currentTask)) {
-                    estMap.put(currentTask, estPred);
-                    // System.out.println(String.format("Updated EST for %s : %.0f", currentTask.getId(), estPred));
-                }
-    
-                if (!estQueue.contains(pred)) {
-                    estQueue.add(pred);
-                    // System.out.println("Adding to estQueue: " + pred.getId());
-                }
+    // فرض: LCT تمام فرزندان در گذر توپولوژیک معکوس قبلاً مقداردهی شده است
+    private double calculateLatestCompletionTime(TaskGraph graph, int task) {
+        int successorCount = graph.getSuccessorCount(task);
+        if (successorCount == 0) {
+            return graph.getWorkflow().getDeadline();
+        }
+        double lct = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < successorCount; k++) {
+            int succ = graph.getSuccessor(task, k);
+            double lctSucc = graph.getLatestCompletionTime(succ) - getEstimatedExecutionTime(graph, succ) - graph.getSuccessorTransferTime(task, k);
+            if (lctSucc < lct) {
+                lct = lctSucc;
             }
-            // if (currentTask.getPredecessors().stream().allMatch(pred -> estMap.containsKey(pred))) {
-                // System.out.println("Task " + currentTask.getId() + " completed and removed from estQueue.");
-            // }
         }
-    
-        return estMap.get(task); // در نهایت EST گره مورد نظر رو برمی‌گردونه
+        return lct;
     }
+    
+    private double calculateSubDeadline(TaskGraph graph, int task) {
+        Workflow workflow = graph.getWorkflow();
+        double workflowSlack = workflow.getDeadline() - workflow.getCriticalPathLength();
 
-    // ------
+        if (workflowSlack < 0) {
+           workflowSlack = 0; 
+        }
 
-    // // below function make problem for very large workflows (StackOverFlow), replaced with non recursive function in above
-    // private double calculateEarliestStartTime(Task task) {
-    //     if (task.getPredecessors().isEmpty()) {
-    //         return task.getWorkflow().getArrivalTime();
-    //     }
-    //     return task.getPredecessors().stream()
-    //             .mapToDouble(pred -> 
-    //                 calculateEarliestStartTime(pred) + getEstimatedExecutionTime(pred) + pred.getDataTransferTime(task))
-    //             .max().orElse(0.0);
-    // }
+        double taskWeight = getEstimatedExecutionTime(graph, task) / workflow.getTotalExecutionTime();
+        double taskSlack = workflowSlack * taskWeight;
+        
+        return graph.getEarliestStartTime(task) + getEstimatedExecutionTime(graph, task) + taskSlack;
+    }
 
+    public SimulationResult runSimulation() {
+        // در شروع اجرا (نه بارگذاری کلاس) تا setLogLevel پیش از آن اثر داشته باشد
+        EventLog.info("Simulation started at: %s", java.time.LocalDateTime.now());
+        if (context.getTraceFile() != null) {
+            trace = SchedulingTrace.open(Path.of(context.getTraceFile()));
+        }
+        // تا زمانی که تسک آماده یا منتظر یا رویداد کاری (ورود گردش‌کار / اتمام تسک) باقی مانده، شبیه‌سازی ادامه دارد
+        while (!readyTasks.isEmpty() || hasWaitingTasks() || pendingWorkEvents > 0) {
+            // آزاد شدن اجاره جا برای VM جدید باز می‌کند؛ قدیمی‌ترین تسک منتظر حتماً VM می‌گیرد
+            if (hasWaitingTasks() && vmFactory.canLease()) {
+                readyTasks.add(pollOldestWaitingTask());
+            }
+            SimulationEvent nextEvent = events.peek();
+            Task nextTask = readyTasks.peek();
+            if (nextTask == null && nextEvent == null) {
+                EventLog.warning("%d tasks are still waiting but no event can free a VM; stopping.",
+                        waitingTasks.size() + lateWaitingTasks.size());
+                break;
+            }
 
+            if (nextTask != null && (nextEvent == null
+                    || !nextEvent.precedes(Math.max(context.getCurrentTime(), nextTask.getEarliestStartTime())))) {
+                readyQueueDepth.record(readyTasks.size());
 
-    // LCT ------
+                // اگر زمان فعلی از زمان آماده بودن تسک عقب‌تر است، زمان را جلو ببر
+                if (context.getCurrentTime() < nextTask.getEarliestStartTime()) {
+                    context.setCurrentTime(nextTask.getEarliestStartTime());
+                }
+                if (context.isBatchScheduling()) {
+                    scheduleRound();
+                } else {
+                    readyTasks.poll();
+                    long decisionStart = System.nanoTime();
+                    scheduleTask(nextTask);
+                    decisionNanos.record(System.nanoTime() - decisionStart);
+                }
+            } else {
+                events.poll();
+                // ساعت شبیه‌سازی هیچ‌وقت به عقب برنمی‌گردد
+                if (context.getCurrentTime() < nextEvent.getTime()) {
+                    context.setCurrentTime(nextEvent.getTime());
+                }
+                processEvent(nextEvent);
+                if (context.getPreProvisionLookahead() > 0) {
+                    preProvision();
+                }
+            }
+        }
 
+        double currentTime = context.getCurrentTime();
+        List<Vm> finallyReleased = vmFactory.calculateFinalBillingCost(currentTime);
+        onVmsReleased(finallyReleased);
+        if (trace != null) {
+            for (Vm vm : finallyReleased) {
+                trace.vmReleased(currentTime, vm);
+            }
+            trace.close();
+            trace = null;
+        }
 
-    private Queue<Task> lctQueue = new LinkedList<>(); // صف برای پیمایش گره‌ها
-    private Map<Task, Double> lctMap = new HashMap<>(); // نقشه برای نگهداری LCT گره‌ها
+        calculatePerformanceMetrics();
+        printSimulationSummary(currentTime);
+        if (context.getMetricsFile() != null) {
+            metrics.export(Path.of(context.getMetricsFile()));
+        }
+        EventLog.flush();
+        return buildResult();
+    }
 
-    private double calculateLatestCompletionTime(Task task) {
-        lctQueue.add(task);
-        lctMap.put(task, task.getWorkflow().getDeadline()); 
+    private SimulationResult buildResult() {
+        return new SimulationResult(vmFactory.getTotalBillingCost(), totalCost, makespan, totalEnergyConsumption,
+                deadlineViolations, submittedWorkflows, vmFactory.getVMCounter());
+    }
 
-        while (!lctQueue.isEmpty()) {
-            Task currentTask = lctQueue.poll();
-            
-            for (Task succ : currentTask.getSuccessors()) {
-                if (!lctMap.containsKey(succ)) {
-                    lctMap.put(succ, task.getWorkflow().getDeadline()); 
-                }
+    private void scheduleEvent(SimulationEvent event) {
+        if (event.getType() == SimulationEvent.Type.WORKFLOW_ARRIVAL || event.getType() == SimulationEvent.Type.TASK_COMPLETION) {
+            pendingWorkEvents++;
+        }
+        events.add(event);
+    }
 
-                double lctSucc = lctMap.get(succ) - getEstimatedExecutionTime(succ) - currentTask.getDataTransferTime(succ);
-                if (!lctMap.containsKey(currentTask) || lctSucc < lctMap.get(currentTask)) {
-                    lctMap.put(currentTask, lctSucc);
+    private void processEvent(SimulationEvent event) {
+        switch (event.getType()) {
+            case WORKFLOW_ARRIVAL -> {
+                pendingWorkEvents--;
+                handleWorkflowArrival(event.getWorkflow());
+                if (arrivals != null && event.getWorkflow() == nextArrival) {
+                    pullNextArrival();
                 }
+            }
+            case TASK_COMPLETION -> {
+                pendingWorkEvents--;
+                handleTaskCompletion(event.getVm());
+            }
+            case VM_BOOT_FINISHED -> EventLog.fine("VM %s finished booting at time %.2f", event.getVm().getId(), context.getCurrentTime());
+            case BILLING_CHECK -> handleBillingCheck();
+        }
+    }
 
-                if (!lctQueue.contains(succ)) {
-                    lctQueue.add(succ);
+    // روی اندیس‌ها پیمایش می‌شود تا handle فقط برای تسک‌هایی ساخته شود که وارد صف‌ها می‌شوند
+    private void handleWorkflowArrival(Workflow workflow) {
+        TaskGraph graph = workflow.getGraph();
+        for (int i = 0; i < graph.size(); i++) {
+            if (graph.isReady(i)) {
+                readyTasks.add(graph.task(i));
+            }
+        }
+        if (context.getPreProvisionLookahead() > 0) {
+            // EST پیش‌پردازش (با زمان اجرای تخمینی پدران) پیش‌بینی زمان آماده شدن تسک‌های دیگر است
+            for (int i = 0; i < graph.size(); i++) {
+                if (!graph.isReady(i)) {
+                    predictions.add(new Prediction(graph.getEarliestStartTime(i), graph.task(i), false));
                 }
             }
         }
-
-        return lctMap.get(task); // در نهایت LCT گره مورد نظر رو برمی‌گردونه
     }
 
-    // // Prof. Abrishami asked to replace below function to non recursive one
-    // private double calculateLatestCompletionTime(Task task) {
-    //     if (task.getSuccessors().isEmpty()) {
-    //         return task.getWorkflow().getDeadline();
-    //     }
-    //     return task.getSuccessors().stream()
-    //             .mapToDouble(succ -> 
-    //                 calculateLatestCompletionTime(succ) - getEstimatedExecutionTime(succ) - task.getDataTransferTime(succ))
-    //             .min().orElse(task.getWorkflow().getDeadline());
-    // }
-    
-    private double calculateSubDeadline(Task task) {
-        Workflow workflow = task.getWorkflow();
-        double workflowSlack = workflow.getDeadline() - workflow.getCriticalPathLength();
-
-        if (workflowSlack < 0) {
-           workflowSlack = 0; 
+    private void handleTaskCompletion(Vm vm) {
+        // تسک‌های هم‌زمان روی یک VM در اولین رویداد برداشته می‌شوند و رویدادهای بعدی لیست خالی می‌گیرند
+        List<Task> justCompleted = vmFactory.completeTasks(vm, context.getCurrentTime());
+        // فقط وقتی صف VM خالی می‌شود زمان در دسترس بودنش جلو می‌آید و ممکن است تسک منتظری در آن جا شود
+        if (!justCompleted.isEmpty() && !vm.hasRunningTasks()) {
+            wakeWaitingTasks(vm);
+        }
+        for (Task completedTask : justCompleted) {
+            completedTask.markCompleted();
+            EventLog.info("Task %s completed on VM %s at time %.2f", completedTask.getId(), vm.getId(), completedTask.getCompletionTime());
+            if (trace != null) {
+                trace.taskCompleted(context.getCurrentTime(), completedTask, vm);
+            }
+            feedbackProcessing(completedTask);
+            TaskGraph graph = completedTask.getGraph();
+            if (graph.getCompletedCount() == graph.size()) {
+                onWorkflowCompleted(completedTask.getWorkflow());
+            }
         }
+    }
 
-        double taskWeight = getEstimatedExecutionTime(task) / workflow.getTotalExecutionTime();
-        double taskSlack = workflowSlack * taskWeight;
-        
-        return task.getEarliestStartTime() + getEstimatedExecutionTime(task) + taskSlack;
+    // آمار گردش‌کار در مجموع‌ها ثبت می‌شود؛ بدون retainCompletedTasks خود گردش‌کار و تسک‌هایش رها می‌شوند
+    private void onWorkflowCompleted(Workflow workflow) {
+        completedWorkflows++;
+        // makespan اجرا زمان پایان آخرین گردش‌کار است؛ makespan هر گردش‌کار از لحظهٔ ورود خودش حساب می‌شود
+        double completionTime = workflow.getCompletionTime();
+        makespan = Math.max(makespan, completionTime);
+        if (completionTime > workflow.getDeadline()) {
+            deadlineViolations++;
+        }
+        TaskGraph graph = workflow.getGraph();
+        for (int i = 0; i < graph.size(); i++) {
+            totalTaskDelay += Math.max(0, graph.getCompletionTime(i) - graph.getSubDeadline(i));
+        }
+        completedTaskCount += graph.size();
+        if (!context.isRetainCompletedTasks()) {
+            workflows.remove(workflow);
+        }
+        EventLog.fine("Workflow %s completed at time %.2f (%d of %d submitted)",
+                workflow.getId(), context.getCurrentTime(), completedWorkflows, submittedWorkflows);
     }
 
-    public void runSimulation() {
-        while (workflows.stream().anyMatch(w -> !w.isCompleted())) {
-            // اگر تسک آماده‌ای برای اجرا وجود دارد، زمان‌بندی کن
-            if (!readyTasks.isEmpty()) {
-                Task taskToSchedule = readyTasks.poll();
+    private void handleBillingCheck() {
+        double currentTime = context.getCurrentTime();
+        if (scheduledBillingCheckTime <= currentTime) {
+            scheduledBillingCheckTime = Double.MAX_VALUE;
+        }
+        List<Vm> released = vmFactory.releaseIdleVMs(currentTime);
+        if (!released.isEmpty()) {
+            onVmsReleased(released);
+        }
+        if (trace != null) {
+            for (Vm vm : released) {
+                trace.vmReleased(currentTime, vm);
+            }
+        }
+        scheduleBillingCheck();
+    }
 
-                // اگر زمان فعلی از زمان آماده بودن تسک عقب‌تر است، زمان را جلو ببر
-                if (currentTime < taskToSchedule.getEarliestStartTime()) {
-                    currentTime = taskToSchedule.getEarliestStartTime();
-                }
-                
-                scheduleTask(taskToSchedule);
-                advanceTime(currentTime);
+    // فقط یک رویداد بررسی صورتحساب برای نزدیک‌ترین مرز دوره در صف نگه می‌داریم
+    private void scheduleBillingCheck() {
+        double nextBoundary = vmFactory.getNextBillingBoundary();
+        if (nextBoundary < scheduledBillingCheckTime) {
+            scheduledBillingCheckTime = nextBoundary;
+            scheduleEvent(SimulationEvent.billingCheck(nextBoundary, eventSequence++));
+        }
+    }
 
-            } else {
-                // اگر تسک آماده‌ای نیست، زمان را به اتمام نزدیک‌ترین پریود زمانی ماشین در حال اجرا منتقل کن
-                double nextCompletionTime = vmFactory.getNextVmCompletionTime(currentTime);
-                if (nextCompletionTime < Double.MAX_VALUE) {
-                    currentTime = nextCompletionTime;
-                    // پردازش تسک‌هایی که در این زمان تمام شده‌اند
-                    processFinishedTasks();
-                } else {
-                    // اگر هیچ تسک آماده و در حال اجرایی نیست، شبیه‌سازی تمام است
-                    break;
-                }
+    /**
+     * تسک‌هایی که پیش‌بینی می‌شود تا پایان پنجرهٔ preProvisionLookahead آماده شوند و VMهای بیکار تا آن زمان
+     * پوشش‌شان نمی‌دهند، از همین حالا VM می‌گیرند تا بوت در زمان انتظار تسک بگذرد. هزینهٔ دورهٔ اول VMهای
+     * پیش‌اجاره‌ای که هنوز تسکی نگرفته‌اند از preProvisionCostCap بیشتر نمی‌شود.
+     */
+    private void preProvision() {
+        if (hasWaitingTasks()) {
+            return; // سقف VMها پر است
+        }
+        double currentTime = context.getCurrentTime();
+        double horizon = currentTime + context.getPreProvisionLookahead();
+        // تصویر VMها فقط وقتی گرفته می‌شود که پیش‌بینی معتبری در پنجره باشد
+        VMFactory.CandidateRound candidates = null;
+        // پیش‌بینی فقط پس از رسیدگی از صف برداشته می‌شود؛ اگر اجاره ممکن نشود (سقف هزینه یا VMها) سر صف می‌ماند
+        // تا رویداد بعدی که بودجه یا جا آزاد می‌کند دوباره امتحانش کند
+        while (!predictions.isEmpty() && predictions.peek().readyTime() <= horizon) {
+            Prediction prediction = predictions.peek();
+            Task task = prediction.task();
+            // تسک زمان‌بندی‌شده، پیش‌بینی گذشته و پیش‌بینی قدیمی تسکی که با بازخورد آماده شده کنار می‌روند
+            if (task.getAssignedVM() != null || prediction.readyTime() <= currentTime
+                    || (task.isReady() && !prediction.observed())) {
+                predictions.poll();
+                continue;
+            }
+            if (candidates == null) {
+                candidates = vmFactory.openRound(currentTime);
+            }
+            // اگر VMهای موجود (با رزروهای همین دور) تسک را تا زیرمهلتش تمام کنند، اجارهٔ زودهنگام لازم نیست
+            if (candidates.reserve(task, prediction.readyTime())) {
+                predictions.poll();
+                continue;
             }
+            Vm vm = candidates.preProvision(task, prediction.readyTime(),
+                    context.getPreProvisionCostCap() - preProvisionCommittedCost);
+            if (vm == null) {
+                return;
+            }
+            predictions.poll();
+            double firstPeriodCost = vmFactory.getFirstPeriodCost(vm);
+            unusedPreProvisioned.put(vm, firstPeriodCost);
+            preProvisionCommittedCost += firstPeriodCost;
+            preProvisionedVms.increment();
+            EventLog.info("Pre-provisioned VM %s at time %.2f for Task %s predicted ready at %.2f",
+                    vm.getId(), currentTime, task.getId(), prediction.readyTime());
         }
+    }
 
-        vmFactory.calculateFinalBillingCost(currentTime);
+    // VM پیش‌اجاره‌ای که بدون هیچ تسکی آزاد شود، کل هزینه‌اش هدر رفته است
+    private void onVmsReleased(List<Vm> released) {
+        if (unusedPreProvisioned.isEmpty()) {
+            return;
+        }
+        for (Vm vm : released) {
+            Double firstPeriodCost = unusedPreProvisioned.remove(vm);
+            if (firstPeriodCost != null) {
+                preProvisionCommittedCost -= firstPeriodCost;
+                preProvisionWastedCost += vm.getCost();
+            }
+        }
+    }
 
-        calculatePerformanceMetrics();
-        printSimulationSummary(currentTime);
+    private void onVmLeased(Vm vm) {
+        if (trace != null) {
+            trace.vmCreated(context.getCurrentTime(), vm);
+        }
+        scheduleEvent(SimulationEvent.vmBootFinished(vm.getStartReleaseTime() + vm.getBootTime(), eventSequence++, vm));
+        scheduleBillingCheck();
+        wakeWaitingTasks(vm);
     }
 
     private void scheduleTask(Task task) {
+        double currentTime = context.getCurrentTime();
         Vm vm = vmFactory.findOrCreateVM(task, currentTime);
         if (vm == null) {
-            LOGGER.warning("Could not schedule Task " + task.getId() + ": No suitable VM found or limit reached. Re-queuing.");
-            task.setEarliestStartTime(currentTime + 1.0);
-            readyTasks.add(task);
+            requeue(task, currentTime);
             return;
         }
+        placeTask(task, vm, currentTime);
+    }
 
+    /**
+     * تمام تسک‌هایی که تا زمان کنونی آماده‌اند در یک دور زمان‌بندی می‌شوند: تسک با زیرمهلت نزدیک‌تر زودتر
+     * VM می‌گیرد و همه روی یک تصویر از VMهای فعال انتخاب می‌شوند که فقط با تخصیص‌های همین دور به‌روز می‌شود.
+     */
+    private void scheduleRound() {
+        double currentTime = context.getCurrentTime();
+        List<Task> round = new ArrayList<>();
+        while (!readyTasks.isEmpty() && readyTasks.peek().getEarliestStartTime() <= currentTime) {
+            round.add(readyTasks.poll());
+        }
+        round.sort(Comparator.comparingDouble(Task::getSubDeadline));
+        batchRoundSize.record(round.size());
+
+        long roundStart = System.nanoTime();
+        VMFactory.CandidateRound candidates = vmFactory.openRound(currentTime);
+        for (Task task : round) {
+            Vm vm = candidates.findOrCreateVM(task);
+            if (vm == null) {
+                requeue(task, currentTime);
+                continue;
+            }
+            placeTask(task, vm, currentTime);
+            candidates.assigned(vm);
+        }
+        // زمان دور بین تصمیم‌های آن تقسیم می‌شود تا nosf_schedule_decision_nanos در هر دو حالت قابل مقایسه بماند
+        long perDecision = (System.nanoTime() - roundStart) / round.size();
+        for (int i = 0; i < round.size(); i++) {
+            decisionNanos.record(perDecision);
+        }
+    }
+
+    // با گذشت زمان به‌تنهایی هیچ VMی برای تسک مناسب‌تر نمی‌شود، پس تا تغییر وضعیت VMها دوباره بررسی نمی‌شود
+    private void requeue(Task task, double currentTime) {
+        EventLog.warning("Could not schedule Task %s: No suitable VM found or limit reached. Waiting for a VM.", task.getId());
+        requeuedTasks.increment();
+        waitingSince.putIfAbsent(task, currentTime);
+        WaitingTask waiting = new WaitingTask(waitSequence++, task);
+        if (vmFactory.canMeetSubDeadline(task, currentTime)) {
+            waitingTasks.add(waiting);
+        } else {
+            lateWaitingTasks.add(waiting);
+        }
+    }
+
+    private boolean hasWaitingTasks() {
+        return !waitingTasks.isEmpty() || !lateWaitingTasks.isEmpty();
+    }
+
+    // قدیمی‌ترین تسک منتظر از هر دو صف
+    private Task pollOldestWaitingTask() {
+        WaitingTask late = lateWaitingTasks.peek();
+        if (waitingTasks.isEmpty() || (late != null && late.sequence() < waitingTasks.get(0).sequence())) {
+            return lateWaitingTasks.poll().task();
+        }
+        return waitingTasks.remove(0).task();
+    }
+
+    /**
+     * تسک‌های منتظر تا آخرین تغییر روی هیچ VMی جا نمی‌شدند، پس فقط همین vm می‌تواند جایشان دهد: تسک‌هایی که
+     * روی vm (با رزرو تسک‌های بیدارشدهٔ قبلی) تا زیرمهلتشان تمام می‌شوند به readyTasks برمی‌گردند و بقیه
+     * بدون زمان‌بندی دوباره منتظر می‌مانند.
+     */
+    private void wakeWaitingTasks(Vm vm) {
+        if (waitingTasks.isEmpty()) {
+            return;
+        }
+        double currentTime = context.getCurrentTime();
+        double availableTime = vm.getIndexedAvailableTime();
+        int kept = 0;
+        for (int i = 0; i < waitingTasks.size(); i++) {
+            WaitingTask waiting = waitingTasks.get(i);
+            Task task = waiting.task();
+            // کران پایین تسک غیرریشه هنگام انتظار ثابت است؛ فقط کران تسک ریشه (زمان فعلی) با گذشت زمان جلو می‌رود
+            if (task.getGraph().getPredecessorCount(task.getIndex()) == 0 && !vmFactory.canMeetSubDeadline(task, currentTime)) {
+                lateWaitingTasks.add(waiting);
+                continue;
+            }
+            double completionTime = vmFactory.calculatePredictedCompletionTime(task, vm, availableTime, currentTime);
+            if (completionTime <= task.getSubDeadline()) {
+                readyTasks.add(task);
+                availableTime = completionTime;
+            } else {
+                waitingTasks.set(kept++, waiting);
+            }
+        }
+        waitingTasks.subList(kept, waitingTasks.size()).clear();
+    }
+
+    private void placeTask(Task task, Vm vm, double currentTime) {
+        Double firstPeriodCost = unusedPreProvisioned.remove(vm);
+        if (firstPeriodCost != null) {
+            // اجارهٔ هنگام نیاز VM را در currentTime + bootTime آماده می‌کرد
+            preProvisionCommittedCost -= firstPeriodCost;
+            preProvisionedUsed.increment();
+            double leadTime = currentTime - vm.getStartReleaseTime();
+            hiddenBootTime += Math.min(vm.getBootTime(), leadTime);
+            // زمانی که VM پس از بوت بیکار منتظر اولین تسک ماند، هزینهٔ اضافهٔ پیش‌اجاره است
+            preProvisionWastedCost += vm.getCostForDuration(Math.max(0, leadTime - vm.getBootTime()));
+        }
+        Double waitStart = waitingSince.remove(task);
+        if (waitStart != null) {
+            waitMillis.record(Math.round((currentTime - waitStart) * 1000));
+        }
         double startTime = vmFactory.calculatePredictedStartTime(task, vm, currentTime);
-        double executionTime = vmFactory.calculatePredictedExecutionTime(task, vm); // این زمان واقعی اجرای تسک است
+        double executionTime = vmFactory.calculateActualExecutionTime(task, vm); // این زمان واقعی اجرای تسک است
         double completionTime = startTime + executionTime;
 
         task.setStartTime(startTime);
@@ -280,41 +590,38 @@ public class NOSFScheduler {
         task.setEnergyConsumption(energy);
         totalCost += cost;
         totalEnergyConsumption += energy;
+        totalExecutionTime += executionTime;
 
         // بروزرسانی وضعیت VM
-        vm.addTask(task);
-        
-        LOGGER.info(String.format("Scheduled Task %s on VM %s: Start=%.2f, End=%.2f, Execution=%.2f, Execution-Cost=$%.2f, Energy=%.0f Ws",
-                task.getId(), vm.getId(), startTime, completionTime, executionTime, cost, energy));
-
-        processFinishedTasks();
-
-    }
-
-    private void processFinishedTasks() {
-        List<Task> justCompletedTasks = vmFactory.updateVmsAndGetCompletedTasks(currentTime);
-
-        for (Task completedTask : justCompletedTasks) {
-            LOGGER.info(String.format("Task %s completed on VM %s at time %.2f", completedTask.getId(), completedTask.getAssignedVM().getId(), completedTask.getCompletionTime()));
-            feedbackProcessing(completedTask);
+        vmFactory.assignTask(vm, task, currentTime);
+        scheduleEvent(SimulationEvent.taskCompletion(completionTime, eventSequence++, task));
+        if (trace != null) {
+            trace.taskScheduled(currentTime, task, vm);
         }
+        
+        EventLog.info("Scheduled Task %s on VM %s: Start=%.2f, End=%.2f, Execution=%.2f, Execution-Cost=$%.2f, Energy=%.0f Ws",
+                task.getId(), vm.getId(), startTime, completionTime, executionTime, cost, energy);
     }
     
     private void feedbackProcessing(Task completedTask) {
-        for (Task successor : completedTask.getSuccessors()) {
-            // چک می‌کنیم که تمام پدران تسک جانشین، تمام شده باشند
-            if (successor.getPredecessors().stream().allMatch(p -> p.getCompletionTime() > 0)) {
+        TaskGraph graph = completedTask.getGraph();
+        int completedIndex = completedTask.getIndex();
+        for (int k = 0; k < graph.getSuccessorCount(completedIndex); k++) {
+            Task successor = graph.task(graph.getSuccessor(completedIndex, k));
+            // شمارندهٔ پدران باقی‌مانده را کم می‌کنیم؛ فقط آخرین پدری که تمام می‌شود تسک را آماده می‌کند
+            if (successor.onPredecessorCompleted(completedTask, graph.getSuccessorTransferTime(completedIndex, k))) {
                 
-                // زمان واقعی آماده به کار شدن تسک را محاسبه می‌کنیم (ζ_r)
-                double newEarliestStartTime = successor.getPredecessors().stream()
-                        .mapToDouble(pred -> pred.getCompletionTime() + pred.getDataTransferTime(successor))
-                        .max().orElse(0.0);
+                // زمان واقعی آماده به کار شدن تسک (ζ_r) به‌صورت افزایشی در خود تسک نگهداری شده است
+                double newEarliestStartTime = successor.getDataReadyTime();
 
                 // مقدار تخمینی اولیه زمان شروع (M^{est}) را قبل از بازنویسی ذخیره می‌کنیم
                 double originalEst = successor.getEarliestStartTime();
 
                 // زمان شروع تسک را با مقدار واقعی جدید به‌روز می‌کنیم
                 successor.setEarliestStartTime(newEarliestStartTime);
+                if (context.getPreProvisionLookahead() > 0 && newEarliestStartTime > context.getCurrentTime()) {
+                    predictions.add(new Prediction(newEarliestStartTime, successor, true));
+                }
                 
                 // زیرمهلت را بر اساس فرمول مقاله و با استفاده از M^{est} اولیه تنظیم می‌کنیم
                 // فرمول: l_sub^r = ζ_r + (l_sub - (M^{est} - w))
@@ -328,94 +635,97 @@ public class NOSFScheduler {
                 }
                 
                 readyTasks.add(successor);
-                System.out.println(String.format("Feedback: Successor %s is now ready. EST=%.2f, SubDeadline=%.2f", successor.getId(), newEarliestStartTime, newSubDeadline));
+                if (trace != null) {
+                    trace.feedback(context.getCurrentTime(), successor);
+                }
+                EventLog.info("Feedback: Successor %s is now ready. EST=%.2f, SubDeadline=%.2f", successor.getId(), newEarliestStartTime, newSubDeadline);
             }
         }
     }
 
+    // مجموع‌ها از آمار تجمعی گرفته می‌شوند تا بدون retainCompletedTasks هم کامل باشند
     private void calculatePerformanceMetrics() {
-        double totalVmLeaseTime = vmFactory.getAllVMs().stream()
-                .mapToDouble(Vm::getTotalLeaseTime)
-                .sum();
-        double totalExecutionTime = workflows.stream()
-                .flatMap(w -> w.getTasks().stream())
-                .mapToDouble(Task::getExecutionTime)
-                .sum();
+        double totalVmLeaseTime = vmFactory.getTotalLeaseTime();
+        resourceUtilization = totalVmLeaseTime > 0 ? totalExecutionTime / totalVmLeaseTime : 0.0;
+        metrics.gauge("nosf_vm_lease_seconds", "Total leased VM time").set(totalVmLeaseTime);
+        metrics.gauge("nosf_task_execution_seconds", "Total task execution time").set(totalExecutionTime);
+        metrics.gauge("nosf_resource_utilization", "Task execution time / VM lease time").set(resourceUtilization);
+        metrics.gauge("nosf_makespan_seconds", "Latest workflow completion time").set(makespan);
+        metrics.gauge("nosf_billing_cost", "Total VM billing cost").set(vmFactory.getTotalBillingCost());
+        metrics.gauge("nosf_preprovision_hidden_boot_seconds", "Boot time overlapped with task waiting by pre-provisioning")
+                .set(hiddenBootTime);
+        metrics.gauge("nosf_preprovision_wasted_cost",
+                        "Cost of pre-provisioned VMs idle after boot before their first task, or released without one")
+                .set(preProvisionWastedCost);
     }
 
     private void printSimulationSummary(double simulationDuration) {
+        if (!EventLog.isLoggable(Level.INFO)) {
+            return;
+        }
         DecimalFormat df = new DecimalFormat("#.##");
         
-        double totalBilingCost = 0;
-        for (Vm vm : vmFactory.getAllVMs())
-            totalBilingCost += vm.getCost();
-
-        long deadlineViolations = workflows.stream().filter(Workflow::hasDeadlineViolation).count();
-
-        LOGGER.info("\n=== Comprehensive Simulation Summary ===");
-        LOGGER.info("Simulation Duration: " + df.format(simulationDuration) + " sec");
-        LOGGER.info("Total VM Rental Cost (Billing): $" + df.format(totalBilingCost));
-        LOGGER.info("Total VM Rental Cost (Executaion): $" + df.format(totalCost));
-        LOGGER.info("Total Energy Consumption: " + df.format(totalEnergyConsumption) + " Watt-seconds");
-        LOGGER.info("Deadline Violation Count: " + deadlineViolations + " out of " + workflows.size());
+        double totalBilingCost = vmFactory.getTotalBillingCost();
+
+        EventLog.info("\n=== Comprehensive Simulation Summary ===");
+        EventLog.info("Simulation Duration: " + df.format(simulationDuration) + " sec");
+        EventLog.info("Total VM Rental Cost (Billing): $" + df.format(totalBilingCost));
+        EventLog.info("Total VM Rental Cost (Executaion): $" + df.format(totalCost));
+        EventLog.info("Total Energy Consumption: " + df.format(totalEnergyConsumption) + " Watt-seconds");
+        EventLog.info("Deadline Violation Count: " + deadlineViolations + " out of " + submittedWorkflows);
+        if (completedWorkflows < submittedWorkflows) {
+            EventLog.info("Unfinished Workflows: " + (submittedWorkflows - completedWorkflows));
+        }
 
 
-        LOGGER.info("\nWorkflow Details:");
+        EventLog.info("\nWorkflow Details:" + (context.isRetainCompletedTasks() ? "" : " (completed workflows not retained)"));
         for (Workflow workflow : workflows) {
-            LOGGER.info("  Workflow: " + workflow.getId() + (workflow.hasDeadlineViolation() ? " (DEADLINE VIOLATED)" : ""));
-            LOGGER.info("    Arrival Time: " + df.format(workflow.getArrivalTime()) + " sec");
-            LOGGER.info("    Deadline: " + df.format(workflow.getDeadline()) + " sec");
-            LOGGER.info("    Makespan: " + df.format(workflow.getMakespan()) + " sec");
+            EventLog.info("  Workflow: " + workflow.getId() + (workflow.hasDeadlineViolation() ? " (DEADLINE VIOLATED)" : ""));
+            EventLog.info("    Arrival Time: " + df.format(workflow.getArrivalTime()) + " sec");
+            EventLog.info("    Deadline: " + df.format(workflow.getDeadline()) + " sec");
+            EventLog.info("    Makespan: " + df.format(workflow.getMakespan()) + " sec");
 
-            LOGGER.info("    Tasks:");
+            EventLog.info("    Tasks:");
             for (Task task : workflow.getTasks()) {
-                LOGGER.info(String.format("      Task %s: Sub-Deadline=%.1f sec, Start=%.1f sec, End=%.1f sec, " +
+                EventLog.info("      Task %s: Sub-Deadline=%.1f sec, Start=%.1f sec, End=%.1f sec, " +
                                 "Execution=%.1f sec, VM=%s, Execution-Cost=$%.4f, Energy=%.0f Ws",
                         task.getId(), task.getSubDeadline(), task.getStartTime(), task.getCompletionTime(),
                         task.getExecutionTime(), task.getAssignedVM() != null ? task.getAssignedVM().getId() : "None",
-                        task.getCost(), task.getEnergyConsumption()));
+                        task.getCost(), task.getEnergyConsumption());
             }
         }
 
-        LOGGER.info("\nVM Usage Details:");
+        EventLog.info("\nVM Usage Details:" + (context.isRetainCompletedTasks() ? "" : " (released VMs not retained)"));
         for (Vm vm : vmFactory.getAllVMs()) {
-            LOGGER.info(String.format("  VM %s: Type=%s, Active Time=%.1f sec, Idle-Time=%.1f sec, " +
+            EventLog.info("  VM %s: Type=%s, Active Time=%.1f sec, Idle-Time=%.1f sec, " +
                             "Total-Leasing-Duration=%.1f sec (%d Cycles), Energy=%.0f Ws, Billiing-Cost=$%.2f",
                     vm.getId(), vm.getTypeId(), vm.getTotalActiveTime(), vm.getTotalIdleTime(), vm.getTotalLeaseTime(), (int) Math.ceil(vm.getTotalLeaseTime()/3600),
-                    vm.getEnergyConsumption(), vm.getCost()));
+                    vm.getEnergyConsumption(), vm.getCost());
         }
 
-        LOGGER.info("\nAdvanced Performance Metrics:");
-        LOGGER.info("  Average Task Delay (from sub-deadline): " + df.format(calculateAverageTaskDelay()) + " sec");
-        LOGGER.info("  Number of VMs Used: " + vmFactory.getVMCounter());
-    }
-
-    private double calculateAverageTaskDelay() {
-        double totalDelay = 0.0;
-        long taskCount = 0;
-        for (Workflow workflow : workflows) {
-            for (Task task : workflow.getTasks()) {
-                if (task.getCompletionTime() > 0) {
-                    totalDelay += Math.max(0, task.getCompletionTime() - task.getSubDeadline());
-                    taskCount++;
-                }
-            }
+        EventLog.info("\nAdvanced Performance Metrics:");
+        EventLog.info("  Average Task Delay (from sub-deadline): " + df.format(calculateAverageTaskDelay()) + " sec");
+        EventLog.info("  Number of VMs Used: " + vmFactory.getVMCounter());
+        EventLog.info("  Resource Utilization: " + df.format(resourceUtilization * 100) + "%");
+        EventLog.info("  Scheduling Decisions: %d (p50=%d ns, p99=%d ns, max=%d ns), VM reuse/new lease: %d/%d, sent to wait list: %d",
+                decisionNanos.getCount(), decisionNanos.getQuantile(0.5), decisionNanos.getQuantile(0.99), decisionNanos.getMax(),
+                metrics.getCounter("nosf_vm_reused_total").get(), metrics.getCounter("nosf_vm_leased_total").get(), requeuedTasks.get());
+        if (waitMillis.getCount() > 0) {
+            EventLog.info("  Tasks That Waited For A VM: %d (mean=%.1f sec, p99=%.1f sec, max=%.1f sec)",
+                    waitMillis.getCount(), waitMillis.getMean() / 1000, waitMillis.getQuantile(0.99) / 1000.0, waitMillis.getMax() / 1000.0);
+        }
+        if (preProvisionedVms.get() > 0) {
+            EventLog.info("  Pre-Provisioning: %d VMs leased ahead (%d used, %d released unused), boot latency hidden=%.1f sec, cost wasted=$%.2f",
+                    preProvisionedVms.get(), preProvisionedUsed.get(), preProvisionedVms.get() - preProvisionedUsed.get(),
+                    hiddenBootTime, preProvisionWastedCost);
+        }
+        if (context.isBatchScheduling()) {
+            EventLog.info("  Batch Rounds: %d (mean size=%.1f, max=%d)",
+                    batchRoundSize.getCount(), batchRoundSize.getMean(), batchRoundSize.getMax());
         }
-        return taskCount > 0 ? totalDelay / taskCount : 0.0;
     }
 
-    public void advanceTime(double currentTime) {
-        for (Vm vm : vmFactory.getActiveVMs()) {
-            if (currentTime >= vm.getNextReleaseCheckTime()) {
-                vmFactory.checkIdleVMs(currentTime); 
-            }
-        }
+    private double calculateAverageTaskDelay() {
+        return completedTaskCount > 0 ? totalTaskDelay / completedTaskCount : 0.0;
     }
-    
-    public static double getCurrentTime() { return currentTime; }
-    public static int getBandwidthMbps() { return bandwidthMbps; }
-    public static double getVarianceFactorAlpha() { return varianceFactorAlpha; }
-    public static int getNormalizationFactor() { return normalizationFactor; }
-    public static double getEstimationFactorEta() { return estimationFactorEta; }
-    public static double getBillingPeriod() { return billingPeriod; }
-}
\ No newline at end of file
+}
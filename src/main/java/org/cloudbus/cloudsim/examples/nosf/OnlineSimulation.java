@@ -0,0 +1,64 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * اجرای آنلاین NOSF: گردش‌کارها از جریان پواسون یا فایل trace در طول زمان شبیه‌سازی وارد می‌شوند.
+ * retainCompletedTasks همیشه خاموش است تا گردش‌کارها و VMهای تمام‌شده فقط در آمار تجمعی بمانند
+ * و حافظه با طول شبیه‌سازی رشد نکند.
+ */
+public class OnlineSimulation {
+    private static final Logger LOGGER = Logger.getLogger(OnlineSimulation.class.getName());
+
+    public static void main(String[] args) throws Exception {
+        // هر منبع ورود تعداد آرگومان خودش را دارد؛ poisson دست‌کم یک فایل گردش‌کار می‌خواهد
+        boolean valid = args.length >= 2 && switch (args[1]) {
+            case "poisson" -> args.length >= 6;
+            case "trace" -> args.length == 3;
+            default -> false;
+        };
+        if (!valid) {
+            System.err.println("Usage: OnlineSimulation <configFile> poisson <meanInterArrivalSec> <maxArrivals> <horizonSec> <workflowFile...>");
+            System.err.println("       OnlineSimulation <configFile> trace <traceFile>");
+            return;
+        }
+        SimulationContext base = SimulationContext.fromConfig(args[0]);
+        SimulationContext context = base.toBuilder().retainCompletedTasks(false).loaderThreads(1).build();
+
+        NOSFScheduler.setLogLevel(Level.OFF);
+        LOGGER.setLevel(Level.INFO);
+        NOSFScheduler scheduler = new NOSFScheduler(context);
+
+        TraceArrivals trace = null;
+        switch (args[1]) {
+            case "poisson" -> {
+                List<String> workflowFiles = Arrays.asList(args).subList(5, args.length);
+                scheduler.submitArrivals(new PoissonArrivals(context, workflowFiles, Double.parseDouble(args[2]),
+                        Long.parseLong(args[3]), Double.parseDouble(args[4]), context.getSeed()));
+            }
+            case "trace" -> {
+                trace = new TraceArrivals(context, args[2]);
+                scheduler.submitArrivals(trace);
+            }
+            default -> throw new IllegalArgumentException("Unknown arrival source: " + args[1]);
+        }
+
+        long start = System.nanoTime();
+        try {
+            SimulationResult result = scheduler.runSimulation();
+            Runtime runtime = Runtime.getRuntime();
+            LOGGER.info(String.format("%d workflows, simulated time %.0f s, wall clock %.1f s: billing=$%.2f, "
+                            + "deadline violations=%d, VMs=%d, heap used=%d MB",
+                    result.getWorkflowCount(), context.getCurrentTime(), (System.nanoTime() - start) / 1e9,
+                    result.getBillingCost(), result.getDeadlineViolations(), result.getVmCount(),
+                    (runtime.totalMemory() - runtime.freeMemory()) >> 20));
+        } finally {
+            if (trace != null) {
+                trace.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * اجرای موازی شبیه‌سازی NOSF روی تمام ترکیب‌های یک شبکهٔ پارامتر.
+ * هر ترکیب (گردش‌کار، کاتالوگ VM، alpha، beta، maxVMs، seed) یک اجرای مستقل با context خودش است
+ * و نتیجهٔ آن بلافاصله به فایل CSV اضافه می‌شود؛ اجراهایی که قبلاً در CSV ثبت شده‌اند دوباره اجرا نمی‌شوند.
+ * کلید هر اجرا مسیر فایل‌ها را نسبت به پوشهٔ فایل sweep دارد تا CSV در checkout جابه‌جاشده یا ماشین دیگر هم
+ * قابل ادامه باشد؛ مسیر مطلق فقط در ستون‌های workflow و vm_catalog نوشته می‌شود.
+ */
+public class ParameterSweep {
+    private static final Logger LOGGER = Logger.getLogger(ParameterSweep.class.getName());
+    private static final String CSV_HEADER = "run_key,workflow,vm_catalog,alpha,beta,max_vms,seed,"
+            + "billing_cost,execution_cost,makespan,energy,deadline_violations,vms,wall_clock_ms";
+
+    private static class RunSpec {
+        final String workflowFile;
+        final String workflowKey; // مسیر نسبی برای کلید اجرا
+        final String vmCatalog;
+        final String vmCatalogKey;
+        final double alpha;
+        final double beta;
+        final int maxVMs;
+        final long seed;
+
+        RunSpec(String workflowFile, String workflowKey, String vmCatalog, String vmCatalogKey,
+                double alpha, double beta, int maxVMs, long seed) {
+            this.workflowFile = workflowFile;
+            this.workflowKey = workflowKey;
+            this.vmCatalog = vmCatalog;
+            this.vmCatalogKey = vmCatalogKey;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.maxVMs = maxVMs;
+            this.seed = seed;
+        }
+
+        String key() {
+            return workflowKey + "|" + vmCatalogKey + "|" + alpha + "|" + beta + "|" + maxVMs + "|" + seed;
+        }
+    }
+
+    private final SimulationContext baseContext;
+    private final List<String> workflowFiles;
+    private final List<String> vmCatalogs;
+    private final List<Double> alphas;
+    private final List<Double> betas;
+    private final List<Integer> maxVMs;
+    private final List<Long> seeds;
+    private final Path outputFile;
+    private final int parallelism; // 0 یعنی تمام هسته‌ها
+    private final Path baseDir; // کلید اجراها مسیر فایل‌ها را نسبت به این پوشه دارد
+
+    public ParameterSweep(SimulationContext baseContext, List<String> workflowFiles, List<String> vmCatalogs,
+                          List<Double> alphas, List<Double> betas, List<Integer> maxVMs, List<Long> seeds,
+                          Path outputFile, int parallelism, Path baseDir) {
+        this.baseContext = baseContext;
+        this.workflowFiles = workflowFiles;
+        this.vmCatalogs = vmCatalogs;
+        this.alphas = alphas;
+        this.betas = betas;
+        this.maxVMs = maxVMs;
+        this.seeds = seeds;
+        this.outputFile = outputFile;
+        this.parallelism = parallelism;
+        this.baseDir = baseDir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * فایل پیکربندی sweep را می‌خواند. مسیرهای نسبی فایل‌ها نسبت به پوشهٔ همین فایل و
+     * مسیر خروجی CSV نسبت به پوشهٔ جاری تفسیر می‌شوند. پارامترهایی که در grid نیامده‌اند از baseConfig گرفته می‌شوند.
+     */
+    public static ParameterSweep fromConfig(String sweepFile) {
+        try {
+            Path baseDir = Path.of(sweepFile).toAbsolutePath().getParent();
+            Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(sweepFile);
+            Element root = doc.getDocumentElement();
+            String baseConfig = baseDir.resolve(getText(root, "baseConfig", "simulation_config.xml")).normalize().toString();
+            SimulationContext base = SimulationContext.fromConfig(baseConfig);
+
+            List<String> workflowFiles = new ArrayList<>();
+            for (String file : getTexts(root, "workflow")) {
+                workflowFiles.add(baseDir.resolve(file).normalize().toString());
+            }
+            List<String> vmCatalogs = new ArrayList<>();
+            for (String file : getTexts(root, "vmCatalog")) {
+                vmCatalogs.add(baseDir.resolve(file).normalize().toString());
+            }
+            if (vmCatalogs.isEmpty()) {
+                vmCatalogs.add(baseConfig);
+            }
+
+            return new ParameterSweep(base, workflowFiles, vmCatalogs,
+                    parseList(getText(root, "varianceFactorAlpha", String.valueOf(base.getVarianceFactorAlpha())), Double::parseDouble),
+                    parseList(getText(root, "deadlineFactorBeta", String.valueOf(base.getDeadlineFactorBeta())), Double::parseDouble),
+                    parseList(getText(root, "maxVMs", String.valueOf(base.getMaxVMs())), Integer::parseInt),
+                    parseList(getText(root, "seeds", "1"), Long::parseLong),
+                    Path.of(getText(root, "output", "sweep_results.csv")),
+                    Integer.parseInt(getText(root, "parallelism", "0")),
+                    baseDir);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load sweep config " + sweepFile, e);
+        }
+    }
+
+    private static String getText(Element root, String name, String defaultValue) {
+        NodeList nodes = root.getElementsByTagName(name);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent().trim() : defaultValue;
+    }
+
+    private static List<String> getTexts(Element root, String name) {
+        List<String> values = new ArrayList<>();
+        NodeList nodes = root.getElementsByTagName(name);
+        for (int i = 0; i < nodes.getLength(); i++) {
+            values.add(nodes.item(i).getTextContent().trim());
+        }
+        return values;
+    }
+
+    // مقادیر یک بعد از شبکه با فاصله یا ویرگول از هم جدا می‌شوند
+    private static <T> List<T> parseList(String text, Function<String, T> parser) {
+        List<T> values = new ArrayList<>();
+        for (String token : text.split("[\\s,]+")) {
+            if (!token.isEmpty()) {
+                values.add(parser.apply(token));
+            }
+        }
+        return values;
+    }
+
+    private List<RunSpec> expandGrid() {
+        List<RunSpec> runs = new ArrayList<>();
+        for (String workflowFile : workflowFiles)
+            for (String vmCatalog : vmCatalogs)
+                for (double alpha : alphas)
+                    for (double beta : betas)
+                        for (int vmLimit : maxVMs)
+                            for (long seed : seeds)
+                                runs.add(new RunSpec(workflowFile, relativeKey(workflowFile), vmCatalog, relativeKey(vmCatalog),
+                                        alpha, beta, vmLimit, seed));
+        return runs;
+    }
+
+    // جداکنندهٔ مسیر همیشه '/' است تا کلید روی ویندوز و لینوکس یکی باشد
+    private String relativeKey(String file) {
+        Path path = Path.of(file).toAbsolutePath().normalize();
+        try {
+            return baseDir.relativize(path).toString().replace('\\', '/');
+        } catch (IllegalArgumentException e) {
+            return path.getFileName().toString(); // ریشهٔ دیگری دارد (مثلاً درایو دیگری در ویندوز)
+        }
+    }
+
+    public void run() throws IOException, InterruptedException {
+        // لاگ هر اجرا خاموش می‌شود و فقط پیشرفت خود sweep گزارش می‌شود
+        NOSFScheduler.setLogLevel(Level.OFF);
+        LOGGER.setLevel(Level.INFO);
+
+        Set<String> completedKeys = readCompletedRunKeys();
+        List<RunSpec> pending = new ArrayList<>();
+        for (RunSpec spec : expandGrid()) {
+            if (!completedKeys.contains(spec.key())) {
+                pending.add(spec);
+            }
+        }
+        LOGGER.info(String.format("Sweep: %d runs pending, %d already in %s",
+                pending.size(), completedKeys.size(), outputFile));
+
+        boolean writeHeader = !Files.exists(outputFile) || Files.size(outputFile) == 0;
+        ExecutorService pool = parallelism > 0 ? Executors.newWorkStealingPool(parallelism) : Executors.newWorkStealingPool();
+        try (BufferedWriter writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (writeHeader) {
+                writer.write(CSV_HEADER);
+                writer.newLine();
+                writer.flush();
+            }
+
+            AtomicInteger finished = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (RunSpec spec : pending) {
+                futures.add(pool.submit(() -> executeRun(spec, writer, finished, pending.size())));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    LOGGER.log(Level.SEVERE, "Sweep run failed", e);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void executeRun(RunSpec spec, BufferedWriter writer, AtomicInteger finished, int total) {
+        long start = System.nanoTime();
+        try {
+            SimulationContext context = baseContext.toBuilder()
+                    .configFile(spec.vmCatalog).maxVMs(spec.maxVMs)
+                    .varianceFactorAlpha(spec.alpha).deadlineFactorBeta(spec.beta)
+                    .retainCompletedTasks(false).seed(spec.seed).loaderThreads(1)
+                    .traceFile(null).metricsFile(null)
+                    .build();
+            NOSFScheduler scheduler = new NOSFScheduler(context);
+            List<Workflow> workflows = Workflow.loadFromXML(new String[]{spec.workflowFile}, context);
+            if (workflows.isEmpty()) {
+                throw new IllegalStateException("Failed to load workflow " + spec.workflowFile);
+            }
+            for (Workflow workflow : workflows) {
+                scheduler.submitWorkflow(workflow);
+            }
+            SimulationResult result = scheduler.runSimulation();
+            long wallClockMs = (System.nanoTime() - start) / 1_000_000;
+
+            writeRow(writer, spec, result, wallClockMs);
+            LOGGER.info(String.format("[%d/%d] %s finished in %d ms", finished.incrementAndGet(), total, spec.key(), wallClockMs));
+        } catch (Exception e) {
+            // ردیفی نوشته نمی‌شود تا اجرای بعدی sweep این ترکیب را دوباره امتحان کند
+            LOGGER.log(Level.SEVERE, "Run " + spec.key() + " failed", e);
+        }
+    }
+
+    private void writeRow(BufferedWriter writer, RunSpec spec, SimulationResult result, long wallClockMs) throws IOException {
+        String row = String.join(",",
+                csv(spec.key()), csv(spec.workflowFile), csv(spec.vmCatalog),
+                String.valueOf(spec.alpha), String.valueOf(spec.beta), String.valueOf(spec.maxVMs), String.valueOf(spec.seed),
+                String.valueOf(result.getBillingCost()), String.valueOf(result.getExecutionCost()),
+                String.valueOf(result.getMakespan()), String.valueOf(result.getEnergyConsumption()),
+                String.valueOf(result.getDeadlineViolations()), String.valueOf(result.getVmCount()),
+                String.valueOf(wallClockMs));
+        // هر ردیف کامل و بلافاصله flush می‌شود تا sweep نیمه‌کاره قابل ادامه باشد
+        synchronized (writer) {
+            writer.write(row);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    private Set<String> readCompletedRunKeys() throws IOException {
+        Set<String> keys = new HashSet<>();
+        if (!Files.exists(outputFile)) {
+            return keys;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(outputFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.equals(CSV_HEADER)) {
+                    keys.add(firstCsvField(line));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String firstCsvField(String line) {
+        if (!line.startsWith("\"")) {
+            int comma = line.indexOf(',');
+            return comma < 0 ? line : line.substring(0, comma);
+        }
+        StringBuilder field = new StringBuilder();
+        for (int i = 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    break;
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        return field.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String sweepFile = args.length > 0 ? args[0] : "..\\resources\\sweep_config.xml";
+        fromConfig(sweepFile).run();
+    }
+}
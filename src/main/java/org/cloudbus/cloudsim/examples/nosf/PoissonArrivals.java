@@ -0,0 +1,60 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ورود گردش‌کارها با فرایند پواسون: فاصلهٔ بین ورودها نمایی با میانگین meanInterArrivalTime است و
+ * هر ورود یکی از فایل‌های DAX را به‌صورت یکنواخت انتخاب می‌کند.
+ * جریان پس از maxArrivals ورود یا رسیدن به horizon (ثانیه) تمام می‌شود؛ مقدار صفر یا منفی یعنی بدون محدودیت.
+ */
+public class PoissonArrivals implements WorkflowArrivals {
+    private static final Logger LOGGER = Logger.getLogger(PoissonArrivals.class.getName());
+
+    private final SimulationContext context;
+    private final List<String> workflowFiles;
+    private final double meanInterArrivalTime;
+    private final long maxArrivals;
+    private final double horizon;
+    private final SplittableRandom random;
+    private double lastArrivalTime;
+    private long arrivals;
+
+    public PoissonArrivals(SimulationContext context, List<String> workflowFiles, double meanInterArrivalTime,
+                           long maxArrivals, double horizon, long seed) {
+        if (workflowFiles.isEmpty()) {
+            throw new IllegalArgumentException("At least one workflow file is required");
+        }
+        if (meanInterArrivalTime <= 0) {
+            throw new IllegalArgumentException("Mean inter-arrival time must be positive: " + meanInterArrivalTime);
+        }
+        this.context = context;
+        this.workflowFiles = List.copyOf(workflowFiles);
+        this.meanInterArrivalTime = meanInterArrivalTime;
+        this.maxArrivals = maxArrivals;
+        this.horizon = horizon;
+        this.random = new SplittableRandom(seed);
+        this.lastArrivalTime = context.getCurrentTime();
+    }
+
+    @Override
+    public Workflow next() {
+        while (maxArrivals <= 0 || arrivals < maxArrivals) {
+            // نمونهٔ نمایی با روش معکوس؛ 1 - u صفر نمی‌شود
+            lastArrivalTime += -meanInterArrivalTime * Math.log(1.0 - random.nextDouble());
+            if (horizon > 0 && lastArrivalTime > horizon) {
+                return null;
+            }
+            arrivals++;
+            String workflowFile = workflowFiles.get(random.nextInt(workflowFiles.size()));
+            try {
+                return Workflow.load(workflowFile, lastArrivalTime, context);
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Failed to load workflow file " + workflowFile, e);
+            }
+        }
+        return null;
+    }
+}
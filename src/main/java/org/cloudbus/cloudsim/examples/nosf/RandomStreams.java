@@ -0,0 +1,62 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.SplittableRandom;
+
+/**
+ * جریان‌های تصادفی قطعی برای نمونه‌برداری زمان اجرا.
+ * هر جریان فقط از روی (seed، شناسهٔ گردش‌کار، شناسهٔ تسک) ساخته می‌شود، پس مقدار تولیدشده
+ * به ترتیب فراخوانی‌ها، تعداد VMهای بررسی‌شده یا اجرای موازی دیگر شبیه‌سازی‌ها بستگی ندارد.
+ */
+public class RandomStreams {
+    private static final long PROBE_SALT = 0x5DEECE66DL; // جدا کردن جریان‌های پیش‌بینی از جریان زمان واقعی
+
+    private final long seed;
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * جریان اختصاصی زمان اجرای واقعی یک تسک.
+     */
+    public SplittableRandom taskStream(Task task) {
+        return new SplittableRandom(taskKey(task));
+    }
+
+    /**
+     * جریان اختصاصی پیش‌بینی زمان اجرای یک تسک روی یک VM مشخص.
+     * کلید تسک یک بار ساخته و در گراف نگه داشته می‌شود؛ برای هر VM کاندید فقط شمارهٔ VM درهم‌سازی می‌شود.
+     */
+    public SplittableRandom probeStream(Task task, Vm vm) {
+        return new SplittableRandom(mix(taskKey(task) ^ mix(PROBE_SALT + vm.getSequence())));
+    }
+
+    private long taskKey(Task task) {
+        TaskGraph graph = task.getGraph();
+        int index = task.getIndex();
+        if (!graph.streamKeyReady[index]) {
+            long h = mix(seed);
+            h = mix(h ^ hash(task.getWorkflow().getId()));
+            graph.streamKey[index] = mix(h ^ hash(task.getId()));
+            graph.streamKeyReady[index] = true;
+        }
+        return graph.streamKey[index];
+    }
+
+    // FNV-1a شصت‌وچهار بیتی
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // تابع نهایی SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
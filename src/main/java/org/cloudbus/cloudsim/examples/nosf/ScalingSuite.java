@@ -0,0 +1,392 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * مجموعهٔ آزمون مقیاس‌پذیری سرتاسری موتور NOSF.
+ * روی تمام ترکیب‌های (شکل گردش‌کار، تعداد تسک هر گردش‌کار، تعداد گردش‌کارهای هم‌زمان، maxVMs، اندازهٔ کاتالوگ VM)
+ * گردش‌کارهای مصنوعی {@link WorkflowGenerator} را شبیه‌سازی می‌کند و برای هر اجرا تسک زمان‌بندی‌شده در هر ثانیه،
+ * اوج مصرف heap و مجموع زمان و تعداد GC را در یک فایل CSV می‌نویسد.
+ *
+ * اجراها برای اندازه‌گیری تمیز پشت سر هم اجرا می‌شوند. ترکیب‌هایی که مجموع تسک‌هایشان از maxTotalTasks بیشتر است کنار گذاشته می‌شوند.
+ * اگر baseline (یک CSV خروجی قبلی) داده شود، هر اجرا با ردیف هم‌کلیدش مقایسه و افت بیش از آستانه‌ها پسرفت گزارش می‌شود.
+ */
+public class ScalingSuite {
+    private static final Logger LOGGER = Logger.getLogger(ScalingSuite.class.getName());
+    private static final String CSV_HEADER = "run_key,shape,tasks_per_workflow,workflows,max_vms,vm_types,seed,"
+            + "total_tasks,generation_ms,simulation_ms,tasks_per_second,peak_heap_mb,gc_count,gc_time_ms,"
+            + "requeued_tasks,decision_p99_ns,billing_cost,deadline_violations,vms";
+    // اختلاف مطلق کمتر از این در زمان GC پسرفت حساب نمی‌شود (نویز اجراهای کوتاه)
+    private static final long GC_NOISE_MS = 50;
+    // توان عملیاتی اجراهایی کوتاه‌تر از این مقایسه نمی‌شود
+    private static final long MIN_COMPARABLE_MS = 100;
+    private static final int WARMUP_TASKS = 2000;
+
+    private record RunSpec(WorkflowGenerator.Shape shape, int tasksPerWorkflow, int workflows, int maxVMs, int vmTypes, long seed) {
+        String key() {
+            return shape + "|" + tasksPerWorkflow + "|" + workflows + "|" + maxVMs + "|" + vmTypes + "|" + seed;
+        }
+    }
+
+    private record Measurement(RunSpec spec, long totalTasks, long generationMs, long simulationMs, double tasksPerSecond,
+                               double peakHeapMb, long gcCount, long gcTimeMs, long requeuedTasks, long decisionP99Ns,
+                               SimulationResult result) {
+    }
+
+    private record Thresholds(double throughputDrop, double peakHeapGrowth, double gcTimeGrowth) {
+    }
+
+    private final SimulationContext baseContext;
+    private final Path baseConfig;
+    private final List<WorkflowGenerator.Shape> shapes;
+    private final List<Integer> taskCounts;
+    private final List<Integer> ensembleWidths;
+    private final List<Integer> maxVMs;
+    private final List<Integer> vmCatalogSizes;
+    private final long seed;
+    private final long maxTotalTasks;
+    private final Path outputFile;
+    private final Path baselineFile; // null یعنی مقایسه انجام نمی‌شود
+    private final Thresholds thresholds;
+
+    private ScalingSuite(SimulationContext baseContext, Path baseConfig, List<WorkflowGenerator.Shape> shapes,
+                         List<Integer> taskCounts, List<Integer> ensembleWidths, List<Integer> maxVMs,
+                         List<Integer> vmCatalogSizes, long seed, long maxTotalTasks, Path outputFile,
+                         Path baselineFile, Thresholds thresholds) {
+        this.baseContext = baseContext;
+        this.baseConfig = baseConfig;
+        this.shapes = shapes;
+        this.taskCounts = taskCounts;
+        this.ensembleWidths = ensembleWidths;
+        this.maxVMs = maxVMs;
+        this.vmCatalogSizes = vmCatalogSizes;
+        this.seed = seed;
+        this.maxTotalTasks = maxTotalTasks;
+        this.outputFile = outputFile;
+        this.baselineFile = baselineFile;
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * فایل پیکربندی را مثل {@link ParameterSweep#fromConfig(String)} می‌خواند: baseConfig نسبت به پوشهٔ همین فایل
+     * و مسیرهای خروجی و baseline نسبت به پوشهٔ جاری.
+     */
+    public static ScalingSuite fromConfig(String suiteFile) {
+        try {
+            Path baseDir = Path.of(suiteFile).toAbsolutePath().getParent();
+            Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(suiteFile);
+            Element root = doc.getDocumentElement();
+            Path baseConfig = baseDir.resolve(getText(root, "baseConfig", "simulation_config.xml")).normalize();
+            SimulationContext base = SimulationContext.fromConfig(baseConfig.toString());
+            String baseline = getText(root, "baseline", null);
+
+            return new ScalingSuite(base, baseConfig,
+                    parseList(getText(root, "shapes", "montage"), s -> WorkflowGenerator.Shape.valueOf(s.toUpperCase(Locale.ROOT))),
+                    parseList(getText(root, "taskCounts", "1000"), Integer::parseInt),
+                    parseList(getText(root, "ensembleWidths", "1"), Integer::parseInt),
+                    parseList(getText(root, "maxVMs", String.valueOf(base.getMaxVMs())), Integer::parseInt),
+                    parseList(getText(root, "vmCatalogSizes", "0"), Integer::parseInt),
+                    Long.parseLong(getText(root, "seed", "1")),
+                    Long.parseLong(getText(root, "maxTotalTasks", "1000000")),
+                    Path.of(getText(root, "output", "scaling_results.csv")),
+                    baseline != null ? Path.of(baseline) : null,
+                    new Thresholds(
+                            Double.parseDouble(getText(root, "throughputDrop", "0.15")),
+                            Double.parseDouble(getText(root, "peakHeapGrowth", "0.25")),
+                            Double.parseDouble(getText(root, "gcTimeGrowth", "0.50"))));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load scaling suite config " + suiteFile, e);
+        }
+    }
+
+    private static String getText(Element root, String name, String defaultValue) {
+        NodeList nodes = root.getElementsByTagName(name);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent().trim() : defaultValue;
+    }
+
+    private static <T> List<T> parseList(String text, Function<String, T> parser) {
+        List<T> values = new ArrayList<>();
+        for (String token : text.split("[\\s,]+")) {
+            if (!token.isEmpty()) {
+                values.add(parser.apply(token));
+            }
+        }
+        return values;
+    }
+
+    private List<RunSpec> expandGrid() {
+        List<RunSpec> runs = new ArrayList<>();
+        for (WorkflowGenerator.Shape shape : shapes)
+            for (int tasks : supportedTaskCounts(shape))
+                for (int width : ensembleWidths)
+                    for (int vmLimit : maxVMs)
+                        for (int vmTypes : vmCatalogSizes)
+                            if ((long) tasks * width <= maxTotalTasks) {
+                                runs.add(new RunSpec(shape, tasks, width, vmLimit, vmTypes, seed));
+                            }
+        return runs;
+    }
+
+    // شکل‌هایی که یک واحد تکرارشونده‌شان از taskCount بزرگ‌تر است ساخته نمی‌شوند؛ این ترکیب‌ها گزارش و رد می‌شوند
+    private List<Integer> supportedTaskCounts(WorkflowGenerator.Shape shape) {
+        int minimum = WorkflowGenerator.minimumTaskCount(shape);
+        List<Integer> supported = new ArrayList<>();
+        for (int tasks : taskCounts) {
+            if (tasks >= minimum) {
+                supported.add(tasks);
+            } else {
+                LOGGER.warning(String.format("Skipping %s with %d tasks per workflow: the shape needs at least %d tasks",
+                        shape, tasks, minimum));
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * @return تعداد اجراهای ناموفق به‌علاوهٔ تعداد پسرفت‌ها نسبت به baseline (صفر اگر baseline تعریف نشده باشد).
+     */
+    public int run() throws IOException {
+        NOSFScheduler.setLogLevel(Level.OFF);
+        LOGGER.setLevel(Level.INFO);
+
+        List<RunSpec> runs = expandGrid();
+        LOGGER.info(String.format("Scaling suite: %d runs (total tasks per run <= %d)", runs.size(), maxTotalTasks));
+        // یک اجرای گرم‌کنندهٔ بدون ثبت تا JIT پیش از اولین اندازه‌گیری کامپایل کرده باشد
+        measure(new RunSpec(WorkflowGenerator.Shape.MONTAGE, WARMUP_TASKS, 1, baseContext.getMaxVMs(), 0, seed), baseConfig);
+
+        Map<Integer, Path> catalogs = new HashMap<>();
+        List<Measurement> measurements = new ArrayList<>();
+        int failures = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+            for (int i = 0; i < runs.size(); i++) {
+                RunSpec spec = runs.get(i);
+                Path catalog = catalogs.computeIfAbsent(spec.vmTypes(), this::writeVmCatalog);
+                Measurement measurement;
+                try {
+                    measurement = measure(spec, catalog);
+                } catch (RuntimeException e) {
+                    // یک اجرای خراب بقیهٔ شبکه و مقایسه با baseline را متوقف نمی‌کند؛ ردیفی هم برایش نوشته نمی‌شود
+                    failures++;
+                    LOGGER.log(Level.SEVERE, String.format("[%d/%d] %s failed", i + 1, runs.size(), spec.key()), e);
+                    continue;
+                }
+                measurements.add(measurement);
+                writer.write(toCsv(measurement));
+                writer.newLine();
+                writer.flush();
+                LOGGER.info(String.format("[%d/%d] %s: %d tasks in %d ms (%.0f tasks/s), peak heap %.0f MB, GC %d ms",
+                        i + 1, runs.size(), spec.key(), measurement.totalTasks(), measurement.simulationMs(),
+                        measurement.tasksPerSecond(), measurement.peakHeapMb(), measurement.gcTimeMs()));
+            }
+        } finally {
+            for (Path catalog : catalogs.values()) {
+                if (!catalog.equals(baseConfig)) {
+                    Files.deleteIfExists(catalog);
+                }
+            }
+        }
+        if (failures > 0) {
+            LOGGER.warning(String.format("%d of %d runs failed", failures, runs.size()));
+        }
+        return failures + (baselineFile != null ? compareWithBaseline(measurements) : 0);
+    }
+
+    private Measurement measure(RunSpec spec, Path catalog) {
+        SimulationContext context = baseContext.toBuilder()
+                .configFile(catalog.toString()).maxVMs(spec.maxVMs())
+                .retainCompletedTasks(false).seed(spec.seed()).loaderThreads(1)
+                .dagCacheDir(null).traceFile(null).metricsFile(null)
+                .build();
+        NOSFScheduler scheduler = new NOSFScheduler(context);
+
+        // heap و شمارنده‌های GC درست پیش از تولید گردش‌کارها صفر می‌شوند تا اوج heap شامل خود گراف‌ها هم باشد
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMs();
+
+        long start = System.nanoTime();
+        WorkflowGenerator generator = new WorkflowGenerator(context, spec.seed());
+        long totalTasks = 0;
+        for (int w = 0; w < spec.workflows(); w++) {
+            Workflow workflow = generator.generate(spec.shape(), spec.tasksPerWorkflow());
+            totalTasks += workflow.getGraph().size();
+            scheduler.submitWorkflow(workflow);
+        }
+        long generated = System.nanoTime();
+        SimulationResult result = scheduler.runSimulation();
+        long finished = System.nanoTime();
+
+        // مجموع اوج هر حوضهٔ heap؛ اوج‌ها لزوماً هم‌زمان نیستند، پس این یک کران بالای اوج کل است
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        MetricsRegistry metrics = scheduler.getMetrics();
+        MetricsRegistry.Counter requeued = metrics.getCounter("nosf_task_requeued_total");
+        long decisionP99 = metrics.getHistogram("nosf_schedule_decision_nanos").getQuantile(0.99);
+        double seconds = (finished - generated) / 1e9;
+        return new Measurement(spec, totalTasks, (generated - start) / 1_000_000, (finished - generated) / 1_000_000,
+                totalTasks / seconds, peakHeap / (1024.0 * 1024.0), gcCount() - gcCountBefore, gcTimeMs() - gcTimeBefore,
+                requeued != null ? requeued.get() : 0, decisionP99, result);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMs() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * فایل پیکربندی موقتی با size نوع VM: انواع فایل پایه به ترتیب و در صورت نیاز انواع مشتق‌شده
+     * (ظرفیت و هزینه هر دور ۵٪ بیشتر) تا کاتالوگ به اندازهٔ خواسته‌شده برسد. size صفر یعنی همان فایل پایه.
+     */
+    private Path writeVmCatalog(int size) {
+        if (size <= 0) {
+            return baseConfig;
+        }
+        try {
+            Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(baseConfig.toFile());
+            NodeList nodes = doc.getElementsByTagName("vmType");
+            List<Element> baseTypes = new ArrayList<>();
+            for (int i = 0; i < nodes.getLength(); i++) {
+                baseTypes.add((Element) nodes.item(i));
+            }
+            if (baseTypes.isEmpty()) {
+                throw new IllegalStateException("No vmType in " + baseConfig);
+            }
+            Element parent = (Element) baseTypes.get(0).getParentNode();
+            for (Element type : baseTypes) {
+                parent.removeChild(type);
+            }
+            for (int i = 0; i < size; i++) {
+                Element type = (Element) baseTypes.get(i % baseTypes.size()).cloneNode(true);
+                int round = i / baseTypes.size();
+                if (round > 0) {
+                    double factor = 1.0 + 0.05 * round;
+                    type.setAttribute("id", type.getAttribute("id") + "-x" + round);
+                    type.setAttribute("processingCapacity", String.valueOf(Double.parseDouble(type.getAttribute("processingCapacity")) * factor));
+                    type.setAttribute("costPerHour", String.valueOf(Double.parseDouble(type.getAttribute("costPerHour")) * factor));
+                }
+                parent.appendChild(type);
+            }
+            Path file = Files.createTempFile("nosf-catalog-" + size + "-", ".xml");
+            TransformerFactory.newInstance().newTransformer().transform(new DOMSource(doc), new StreamResult(file.toFile()));
+            return file;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to write a VM catalog with " + size + " types", e);
+        }
+    }
+
+    private static String toCsv(Measurement m) {
+        RunSpec spec = m.spec();
+        SimulationResult result = m.result();
+        return String.join(",", spec.key(), spec.shape().name(), String.valueOf(spec.tasksPerWorkflow()),
+                String.valueOf(spec.workflows()), String.valueOf(spec.maxVMs()), String.valueOf(spec.vmTypes()),
+                String.valueOf(spec.seed()), String.valueOf(m.totalTasks()), String.valueOf(m.generationMs()),
+                String.valueOf(m.simulationMs()), String.format(Locale.ROOT, "%.1f", m.tasksPerSecond()),
+                String.format(Locale.ROOT, "%.1f", m.peakHeapMb()), String.valueOf(m.gcCount()), String.valueOf(m.gcTimeMs()),
+                String.valueOf(m.requeuedTasks()), String.valueOf(m.decisionP99Ns()),
+                String.valueOf(result.getBillingCost()), String.valueOf(result.getDeadlineViolations()),
+                String.valueOf(result.getVmCount()));
+    }
+
+    private int compareWithBaseline(List<Measurement> measurements) throws IOException {
+        Map<String, String[]> baseline = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(baselineFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.equals(CSV_HEADER)) {
+                    String[] fields = line.split(",");
+                    baseline.put(fields[0], fields);
+                }
+            }
+        }
+
+        int regressions = 0;
+        int compared = 0;
+        for (Measurement m : measurements) {
+            String[] base = baseline.get(m.spec().key());
+            if (base == null) {
+                continue;
+            }
+            compared++;
+            double baseThroughput = Double.parseDouble(base[10]);
+            double basePeakHeap = Double.parseDouble(base[11]);
+            long baseGcTime = Long.parseLong(base[13]);
+            if (m.simulationMs() >= MIN_COMPARABLE_MS && Long.parseLong(base[9]) >= MIN_COMPARABLE_MS
+                    && m.tasksPerSecond() < baseThroughput * (1 - thresholds.throughputDrop())) {
+                regressions++;
+                LOGGER.warning(String.format("REGRESSION %s: throughput %.0f tasks/s vs baseline %.0f (-%.0f%%)",
+                        m.spec().key(), m.tasksPerSecond(), baseThroughput, 100 * (1 - m.tasksPerSecond() / baseThroughput)));
+            }
+            if (m.peakHeapMb() > basePeakHeap * (1 + thresholds.peakHeapGrowth())) {
+                regressions++;
+                LOGGER.warning(String.format("REGRESSION %s: peak heap %.0f MB vs baseline %.0f MB",
+                        m.spec().key(), m.peakHeapMb(), basePeakHeap));
+            }
+            if (m.gcTimeMs() > baseGcTime * (1 + thresholds.gcTimeGrowth()) && m.gcTimeMs() - baseGcTime > GC_NOISE_MS) {
+                regressions++;
+                LOGGER.warning(String.format("REGRESSION %s: GC time %d ms vs baseline %d ms",
+                        m.spec().key(), m.gcTimeMs(), baseGcTime));
+            }
+        }
+        LOGGER.info(String.format("Compared %d of %d runs with %s: %d regressions", compared, measurements.size(),
+                baselineFile, regressions));
+        return regressions;
+    }
+
+    /**
+     * آرگومان: فایل پیکربندی مجموعه. اگر اجرایی شکست بخورد یا نسبت به baseline پسرفتی دیده شود کد خروج ۱ است.
+     */
+    public static void main(String[] args) throws Exception {
+        String suiteFile = args.length > 0 ? args[0] : "..\\resources\\scaling_config.xml";
+        int regressions = fromConfig(suiteFile).run();
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+}
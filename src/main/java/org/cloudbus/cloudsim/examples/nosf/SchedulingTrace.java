@@ -0,0 +1,153 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ردپای باینری رویدادهای زمان‌بندی یک اجرا؛ با {@link TraceReader} بدون اجرای دوبارهٔ شبیه‌سازی بازخوانی می‌شود.
+ *
+ * قالب فایل (big-endian):
+ * <pre>
+ * int magic, int version
+ * رکوردها، هر کدام: byte type + فیلدها
+ *   STRING          int id, int length, UTF-8 bytes
+ *   VM_CREATED      double time, int vm, int type, double costPerHour, double bootTime
+ *   TASK_SCHEDULED  double time, int workflow, int task, int vm, double start, double end, double cost, double energy
+ *   TASK_COMPLETED  double time, int workflow, int task, int vm
+ *   FEEDBACK        double time, int workflow, int task, double earliestStart, double subDeadline
+ *   VM_RELEASED     double time, int vm, double leaseDuration, double billingCost
+ * byte 0 (یا انتهای فایل)
+ * </pre>
+ * رشته‌ها (شناسهٔ گردش‌کار، تسک، VM و نوع VM) فقط بار اول با یک رکورد STRING نوشته می‌شوند و بعد با شماره ارجاع می‌شوند.
+ * نوشتن از طریق پنجره‌های نگاشت‌شدهٔ حافظه به طول {@link #CHUNK_SIZE} انجام می‌شود، پس هر رکورد فقط چند put در حافظه است.
+ */
+public final class SchedulingTrace implements AutoCloseable {
+    static final int MAGIC = 0x4E545243; // "NTRC"
+    static final int VERSION = 1;
+
+    static final byte END = 0;
+    static final byte STRING = 1;
+    static final byte VM_CREATED = 2;
+    static final byte TASK_SCHEDULED = 3;
+    static final byte TASK_COMPLETED = 4;
+    static final byte FEEDBACK = 5;
+    static final byte VM_RELEASED = 6;
+
+    private static final int CHUNK_SIZE = 8 << 20;
+
+    private final FileChannel channel;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private MappedByteBuffer buffer;
+    private long bufferOffset; // موقعیت شروع پنجرهٔ فعلی در فایل
+
+    private SchedulingTrace(FileChannel channel) throws IOException {
+        this.channel = channel;
+        map(0, CHUNK_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    public static SchedulingTrace open(Path file) {
+        try {
+            return new SchedulingTrace(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open scheduling trace " + file, e);
+        }
+    }
+
+    public void vmCreated(double time, Vm vm) {
+        int id = intern(vm.getId());
+        int type = intern(vm.getTypeId());
+        ensure(1 + Double.BYTES + 2 * Integer.BYTES + 2 * Double.BYTES);
+        buffer.put(VM_CREATED).putDouble(time).putInt(id).putInt(type)
+                .putDouble(vm.getCostPerHour()).putDouble(vm.getBootTime());
+    }
+
+    public void taskScheduled(double time, Task task, Vm vm) {
+        int workflow = intern(task.getWorkflow().getId());
+        int id = intern(task.getId());
+        int vmId = intern(vm.getId());
+        ensure(1 + Double.BYTES + 3 * Integer.BYTES + 4 * Double.BYTES);
+        buffer.put(TASK_SCHEDULED).putDouble(time).putInt(workflow).putInt(id).putInt(vmId)
+                .putDouble(task.getStartTime()).putDouble(task.getCompletionTime())
+                .putDouble(task.getCost()).putDouble(task.getEnergyConsumption());
+    }
+
+    public void taskCompleted(double time, Task task, Vm vm) {
+        int workflow = intern(task.getWorkflow().getId());
+        int id = intern(task.getId());
+        int vmId = intern(vm.getId());
+        ensure(1 + Double.BYTES + 3 * Integer.BYTES);
+        buffer.put(TASK_COMPLETED).putDouble(time).putInt(workflow).putInt(id).putInt(vmId);
+    }
+
+    public void feedback(double time, Task successor) {
+        int workflow = intern(successor.getWorkflow().getId());
+        int id = intern(successor.getId());
+        ensure(1 + Double.BYTES + 2 * Integer.BYTES + 2 * Double.BYTES);
+        buffer.put(FEEDBACK).putDouble(time).putInt(workflow).putInt(id)
+                .putDouble(successor.getEarliestStartTime()).putDouble(successor.getSubDeadline());
+    }
+
+    public void vmReleased(double time, Vm vm) {
+        int id = intern(vm.getId());
+        ensure(1 + Double.BYTES + Integer.BYTES + 2 * Double.BYTES);
+        buffer.put(VM_RELEASED).putDouble(time).putInt(id).putDouble(vm.getTotalLeaseTime()).putDouble(vm.getCost());
+    }
+
+    private int intern(String value) {
+        Integer id = strings.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.put(value, id);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(1 + 2 * Integer.BYTES + bytes.length);
+            buffer.put(STRING).putInt(id).putInt(bytes.length).put(bytes);
+        }
+        return id;
+    }
+
+    // اگر رکورد در پنجرهٔ فعلی جا نشود، پنجرهٔ بعدی از انتهای داده‌های نوشته‌شده نگاشت می‌شود
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                map(bufferOffset + buffer.position(), Math.max(CHUNK_SIZE, bytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot extend scheduling trace", e);
+            }
+        }
+    }
+
+    private void map(long offset, int size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, size);
+        bufferOffset = offset;
+    }
+
+    /**
+     * نشانگر پایان را می‌نویسد و فایل را به طول داده‌ها کوتاه می‌کند.
+     */
+    @Override
+    public void close() {
+        try {
+            ensure(1);
+            buffer.put(END);
+            long length = bufferOffset + buffer.position();
+            buffer.force();
+            try {
+                channel.truncate(length);
+            } catch (IOException e) {
+                // روی سیستم‌هایی که فایل نگاشت‌شده را کوتاه نمی‌کنند، صفرهای انتهای فایل بعد از END نادیده گرفته می‌شوند
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close scheduling trace", e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * وضعیت و پارامترهای یک اجرای شبیه‌سازی.
+ * هر اجرا context مخصوص خودش را دارد تا چند شبیه‌سازی مستقل بتوانند هم‌زمان در یک JVM اجرا شوند.
+ */
+public class SimulationContext {
+    private final String configFile; // فایل تعریف انواع VM
+    private final int maxVMs;
+    private final int normalizationFactor;
+    private final int bandwidthMbps;
+    private final double billingPeriod;
+    private final double varianceFactorAlpha;
+    private final double deadlineFactorBeta;
+    private final double estimationFactorEta;
+    private final boolean retainCompletedTasks;
+    private final long seed; // بذر مولد اعداد تصادفی نوسان زمان اجرا
+    private final int loaderThreads; // اندازهٔ استخر نخ‌های پارس فایل‌های DAX
+    private final String dagCacheDir; // پوشهٔ کش باینری گراف‌ها؛ null یعنی کش غیرفعال است
+    private final String traceFile; // فایل ردپای باینری زمان‌بندی (SchedulingTrace)؛ null یعنی غیرفعال
+    private final String metricsFile; // خروجی MetricsRegistry در پایان اجرا (.json یا متن Prometheus)؛ null یعنی غیرفعال
+    private final boolean batchScheduling; // تسک‌های آمادهٔ هم‌زمان در یک دور تطبیق با یک تصویر از VMها زمان‌بندی شوند
+    private final double preProvisionLookahead; // پنجرهٔ پیش‌بینی تقاضا برای اجارهٔ زودهنگام VM (ثانیه)؛ ۰ یعنی غیرفعال
+    private final double preProvisionCostCap; // سقف هزینهٔ دورهٔ اول VMهای زودهنگامی که هنوز تسکی نگرفته‌اند
+    private final AtomicInteger workflowCounter = new AtomicInteger();
+    private double currentTime = 0.0; // ساعت شبیه‌سازی
+
+    private SimulationContext(Builder builder) {
+        this.configFile = builder.configFile;
+        this.maxVMs = builder.maxVMs;
+        this.normalizationFactor = builder.normalizationFactor;
+        this.bandwidthMbps = builder.bandwidthMbps;
+        this.billingPeriod = builder.billingPeriod;
+        this.varianceFactorAlpha = builder.varianceFactorAlpha;
+        this.deadlineFactorBeta = builder.deadlineFactorBeta;
+        this.estimationFactorEta = builder.estimationFactorEta;
+        this.retainCompletedTasks = builder.retainCompletedTasks;
+        this.seed = builder.seed;
+        this.loaderThreads = Math.max(1, builder.loaderThreads);
+        this.dagCacheDir = builder.dagCacheDir;
+        this.traceFile = builder.traceFile;
+        this.metricsFile = builder.metricsFile;
+        this.batchScheduling = builder.batchScheduling;
+        this.preProvisionLookahead = builder.preProvisionLookahead;
+        this.preProvisionCostCap = builder.preProvisionCostCap;
+    }
+
+    /**
+     * builder با مقادیر پیش‌فرض پارامترهای اختیاری؛ پارامترهای الزامی فایل پیکربندی باید تنظیم شوند.
+     */
+    public static Builder builder(String configFile) {
+        return new Builder().configFile(configFile);
+    }
+
+    /**
+     * builder با تمام پارامترهای همین context تا فراخواننده فقط آنچه را تغییر می‌دهد بازنویسی کند
+     * (ساعت شبیه‌سازی و شمارندهٔ گردش‌کارها کپی نمی‌شوند).
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.configFile = configFile;
+        builder.maxVMs = maxVMs;
+        builder.normalizationFactor = normalizationFactor;
+        builder.bandwidthMbps = bandwidthMbps;
+        builder.billingPeriod = billingPeriod;
+        builder.varianceFactorAlpha = varianceFactorAlpha;
+        builder.deadlineFactorBeta = deadlineFactorBeta;
+        builder.estimationFactorEta = estimationFactorEta;
+        builder.retainCompletedTasks = retainCompletedTasks;
+        builder.seed = seed;
+        builder.loaderThreads = loaderThreads;
+        builder.dagCacheDir = dagCacheDir;
+        builder.traceFile = traceFile;
+        builder.metricsFile = metricsFile;
+        builder.batchScheduling = batchScheduling;
+        builder.preProvisionLookahead = preProvisionLookahead;
+        builder.preProvisionCostCap = preProvisionCostCap;
+        return builder;
+    }
+
+    /**
+     * پارامترهای بخش simulationParameters فایل پیکربندی را می‌خواند.
+     */
+    public static SimulationContext fromConfig(String configFile) {
+        try {
+            Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(configFile);
+            Element simParams = (Element) doc.getElementsByTagName("simulationParameters").item(0);
+            return builder(configFile)
+                    .maxVMs(Integer.parseInt(getParameter(simParams, "maxVMs")))
+                    .normalizationFactor(Integer.parseInt(getParameter(simParams, "NormalizationFactor")))
+                    .bandwidthMbps(Integer.parseInt(getParameter(simParams, "bandwidthMbps")))
+                    .billingPeriod(Double.parseDouble(getParameter(simParams, "billingPeriod")))
+                    .varianceFactorAlpha(Double.parseDouble(getParameter(simParams, "varianceFactorAlpha")))
+                    .deadlineFactorBeta(Double.parseDouble(getParameter(simParams, "deadlineFactorBeta")))
+                    .estimationFactorEta(Double.parseDouble(getParameter(simParams, "estimationFactorEta")))
+                    .retainCompletedTasks(Boolean.parseBoolean(getOptionalParameter(simParams, "retainCompletedTasks", "true")))
+                    .seed(Long.parseLong(getOptionalParameter(simParams, "randomSeed", String.valueOf(System.nanoTime()))))
+                    .loaderThreads(Integer.parseInt(getOptionalParameter(simParams, "loaderThreads",
+                            String.valueOf(Runtime.getRuntime().availableProcessors()))))
+                    .dagCacheDir(getOptionalParameter(simParams, "dagCacheDir", null))
+                    .traceFile(getOptionalParameter(simParams, "traceFile", null))
+                    .metricsFile(getOptionalParameter(simParams, "metricsFile", null))
+                    .batchScheduling(Boolean.parseBoolean(getOptionalParameter(simParams, "batchScheduling", "false")))
+                    .preProvisionLookahead(Double.parseDouble(getOptionalParameter(simParams, "preProvisionLookahead", "0")))
+                    .preProvisionCostCap(Double.parseDouble(getOptionalParameter(simParams, "preProvisionCostCap", "Infinity")))
+                    .build();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load simulation config", e);
+        }
+    }
+
+    private static String getParameter(Element simParams, String name) {
+        return simParams.getElementsByTagName(name).item(0).getTextContent().trim();
+    }
+
+    private static String getOptionalParameter(Element simParams, String name, String defaultValue) {
+        NodeList nodes = simParams.getElementsByTagName(name);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent().trim() : defaultValue;
+    }
+
+    /**
+     * یک بازهٔ پیوسته از شمارهٔ گردش‌کارها (wf-0, wf-1, ...) رزرو می‌کند و اولین شماره را برمی‌گرداند.
+     */
+    public int reserveWorkflowIds(int count) {
+        return workflowCounter.getAndAdd(count);
+    }
+
+    public double getCurrentTime() { return currentTime; }
+    public void setCurrentTime(double currentTime) { this.currentTime = currentTime; }
+    public String getConfigFile() { return configFile; }
+    public int getMaxVMs() { return maxVMs; }
+    public int getNormalizationFactor() { return normalizationFactor; }
+    public int getBandwidthMbps() { return bandwidthMbps; }
+    public double getBillingPeriod() { return billingPeriod; }
+    public double getVarianceFactorAlpha() { return varianceFactorAlpha; }
+    public double getDeadlineFactorBeta() { return deadlineFactorBeta; }
+    public double getEstimationFactorEta() { return estimationFactorEta; }
+    public boolean isRetainCompletedTasks() { return retainCompletedTasks; }
+    public long getSeed() { return seed; }
+    public int getLoaderThreads() { return loaderThreads; }
+    public String getDagCacheDir() { return dagCacheDir; }
+    public String getTraceFile() { return traceFile; }
+    public String getMetricsFile() { return metricsFile; }
+    public boolean isBatchScheduling() { return batchScheduling; }
+    public double getPreProvisionLookahead() { return preProvisionLookahead; }
+    public double getPreProvisionCostCap() { return preProvisionCostCap; }
+
+    /**
+     * پارامترهای یک context؛ مقادیر پیش‌فرض اختیاری‌ها همان پیش‌فرض‌های fromConfig است (به‌جز loaderThreads که ۱ است).
+     */
+    public static final class Builder {
+        private String configFile;
+        private int maxVMs;
+        private int normalizationFactor;
+        private int bandwidthMbps;
+        private double billingPeriod;
+        private double varianceFactorAlpha;
+        private double deadlineFactorBeta;
+        private double estimationFactorEta;
+        private boolean retainCompletedTasks = true;
+        private long seed = System.nanoTime();
+        private int loaderThreads = 1;
+        private String dagCacheDir;
+        private String traceFile;
+        private String metricsFile;
+        private boolean batchScheduling;
+        private double preProvisionLookahead;
+        private double preProvisionCostCap = Double.POSITIVE_INFINITY;
+
+        private Builder() {
+        }
+
+        public Builder configFile(String configFile) {
+            this.configFile = configFile;
+            return this;
+        }
+
+        public Builder maxVMs(int maxVMs) {
+            this.maxVMs = maxVMs;
+            return this;
+        }
+
+        public Builder normalizationFactor(int normalizationFactor) {
+            this.normalizationFactor = normalizationFactor;
+            return this;
+        }
+
+        public Builder bandwidthMbps(int bandwidthMbps) {
+            this.bandwidthMbps = bandwidthMbps;
+            return this;
+        }
+
+        public Builder billingPeriod(double billingPeriod) {
+            this.billingPeriod = billingPeriod;
+            return this;
+        }
+
+        public Builder varianceFactorAlpha(double varianceFactorAlpha) {
+            this.varianceFactorAlpha = varianceFactorAlpha;
+            return this;
+        }
+
+        public Builder deadlineFactorBeta(double deadlineFactorBeta) {
+            this.deadlineFactorBeta = deadlineFactorBeta;
+            return this;
+        }
+
+        public Builder estimationFactorEta(double estimationFactorEta) {
+            this.estimationFactorEta = estimationFactorEta;
+            return this;
+        }
+
+        public Builder retainCompletedTasks(boolean retainCompletedTasks) {
+            this.retainCompletedTasks = retainCompletedTasks;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder loaderThreads(int loaderThreads) {
+            this.loaderThreads = loaderThreads;
+            return this;
+        }
+
+        public Builder dagCacheDir(String dagCacheDir) {
+            this.dagCacheDir = dagCacheDir;
+            return this;
+        }
+
+        public Builder traceFile(String traceFile) {
+            this.traceFile = traceFile;
+            return this;
+        }
+
+        public Builder metricsFile(String metricsFile) {
+            this.metricsFile = metricsFile;
+            return this;
+        }
+
+        public Builder batchScheduling(boolean batchScheduling) {
+            this.batchScheduling = batchScheduling;
+            return this;
+        }
+
+        public Builder preProvisionLookahead(double preProvisionLookahead) {
+            this.preProvisionLookahead = preProvisionLookahead;
+            return this;
+        }
+
+        public Builder preProvisionCostCap(double preProvisionCostCap) {
+            this.preProvisionCostCap = preProvisionCostCap;
+            return this;
+        }
+
+        public SimulationContext build() {
+            return new SimulationContext(this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+/**
+ * یک رویداد در هستهٔ گسسته-پیشامد شبیه‌سازی NOSF.
+ * رویدادها بر اساس زمان شبیه‌سازی، سپس نوع رویداد و در نهایت ترتیب ورود مرتب می‌شوند
+ * تا ترتیب پردازش رویدادهای هم‌زمان قطعی باشد.
+ */
+public class SimulationEvent implements Comparable<SimulationEvent> {
+
+    public enum Type {
+        WORKFLOW_ARRIVAL(true),
+        TASK_COMPLETION(true),
+        VM_BOOT_FINISHED(true),
+        BILLING_CHECK(false);
+
+        // آیا این رویداد باید قبل از زمان‌بندی تسک‌های آماده در همان لحظه پردازش شود؟
+        private final boolean processedBeforeScheduling;
+
+        Type(boolean processedBeforeScheduling) {
+            this.processedBeforeScheduling = processedBeforeScheduling;
+        }
+
+        public boolean isProcessedBeforeScheduling() {
+            return processedBeforeScheduling;
+        }
+    }
+
+    private final double time;
+    private final Type type;
+    private final long sequence;
+    private final Workflow workflow;
+    private final Task task;
+    private final Vm vm;
+
+    private SimulationEvent(double time, Type type, long sequence, Workflow workflow, Task task, Vm vm) {
+        this.time = time;
+        this.type = type;
+        this.sequence = sequence;
+        this.workflow = workflow;
+        this.task = task;
+        this.vm = vm;
+    }
+
+    public static SimulationEvent workflowArrival(double time, long sequence, Workflow workflow) {
+        return new SimulationEvent(time, Type.WORKFLOW_ARRIVAL, sequence, workflow, null, null);
+    }
+
+    public static SimulationEvent taskCompletion(double time, long sequence, Task task) {
+        return new SimulationEvent(time, Type.TASK_COMPLETION, sequence, task.getWorkflow(), task, task.getAssignedVM());
+    }
+
+    public static SimulationEvent vmBootFinished(double time, long sequence, Vm vm) {
+        return new SimulationEvent(time, Type.VM_BOOT_FINISHED, sequence, null, null, vm);
+    }
+
+    public static SimulationEvent billingCheck(double time, long sequence) {
+        return new SimulationEvent(time, Type.BILLING_CHECK, sequence, null, null, null);
+    }
+
+    /**
+     * بررسی می‌کند که آیا این رویداد باید پیش از زمان‌بندی تسکی که در لحظهٔ داده‌شده آماده است پردازش شود.
+     */
+    public boolean precedes(double schedulingTime) {
+        return time < schedulingTime || (time == schedulingTime && type.isProcessedBeforeScheduling());
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        int byTime = Double.compare(time, other.time);
+        if (byTime != 0) {
+            return byTime;
+        }
+        int byType = type.compareTo(other.type);
+        if (byType != 0) {
+            return byType;
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Workflow getWorkflow() {
+        return workflow;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public Vm getVm() {
+        return vm;
+    }
+}
@@ -0,0 +1,33 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+/**
+ * نتایج خلاصهٔ یک اجرای شبیه‌سازی.
+ */
+public class SimulationResult {
+    private final double billingCost;
+    private final double executionCost;
+    private final double makespan;
+    private final double energyConsumption;
+    private final long deadlineViolations;
+    private final int workflowCount;
+    private final int vmCount;
+
+    public SimulationResult(double billingCost, double executionCost, double makespan, double energyConsumption,
+                            long deadlineViolations, int workflowCount, int vmCount) {
+        this.billingCost = billingCost;
+        this.executionCost = executionCost;
+        this.makespan = makespan;
+        this.energyConsumption = energyConsumption;
+        this.deadlineViolations = deadlineViolations;
+        this.workflowCount = workflowCount;
+        this.vmCount = vmCount;
+    }
+
+    public double getBillingCost() { return billingCost; }
+    public double getExecutionCost() { return executionCost; }
+    public double getMakespan() { return makespan; }
+    public double getEnergyConsumption() { return energyConsumption; }
+    public long getDeadlineViolations() { return deadlineViolations; }
+    public int getWorkflowCount() { return workflowCount; }
+    public int getVmCount() { return vmCount; }
+}
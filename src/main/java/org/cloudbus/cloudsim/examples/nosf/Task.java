@@ -1,157 +1,200 @@
 package org.cloudbus.cloudsim.examples.nosf;
 
-import java.util.ArrayList;
 import java.util.List;
 
-public class Task {
-    private final String id;
-    private final double meanExecutionTime;
-    private final double varianceExecutionTime;
-    private final double dataTransferTime;
-    private final Workflow workflow;
-    private final List<Task> predecessors = new ArrayList<>();
-    private final List<Task> successors = new ArrayList<>();
-    private double earliestStartTime;
-    private double latestCompletionTime;
-    private double subDeadline;
-    private double priority;
-    private double startTime;
-    private double executionTime;
-    private double completionTime;
-    private Vm assignedVM;
-    private double cost;
-    private double energyConsumption;
-
-    public Task(String id, double meanExecutionTime, double varianceExecutionTime, double dataTransferTime, Workflow workflow) {
-        this.id = id;
-        this.meanExecutionTime = meanExecutionTime;
-        this.varianceExecutionTime = varianceExecutionTime;
-        this.dataTransferTime = dataTransferTime;
-        this.workflow = workflow;
-    }
-
-    public void addPredecessor(Task predecessor) {
-        predecessors.add(predecessor);
-        predecessor.addSuccessor(this);
-    }
-
-    public void addSuccessor(Task successor) {
-        successors.add(successor);
+/**
+ * دستگیرهٔ یک تسک در {@link TaskGraph}؛ تمام مقادیر در ستون‌های گراف و در اندیس همین تسک نگه داشته می‌شوند.
+ */
+public final class Task {
+    private final TaskGraph graph;
+    private final int index;
+
+    Task(TaskGraph graph, int index) {
+        this.graph = graph;
+        this.index = index;
+    }
+
+    public TaskGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * اندیس این تسک در ستون‌های {@link TaskGraph}.
+     */
+    public int getIndex() {
+        return index;
     }
 
     public boolean isReady() {
-        return predecessors.stream().allMatch(pred -> pred.completionTime > 0);
+        return graph.pendingPredecessors[index] == 0;
+    }
+
+    /**
+     * اتمام یکی از پدران را ثبت می‌کند: شمارندهٔ پدران باقی‌مانده کم می‌شود و
+     * زمان آماده بودن داده‌ها (بیشینهٔ زمان اتمام پدر + زمان انتقال داده) به‌روز می‌شود.
+     *
+     * @param transferTime زمان انتقال داده روی یال predecessor → این تسک
+     * @return true اگر این آخرین پدر باقی‌مانده بوده و تسک اکنون آماده است.
+     */
+    public boolean onPredecessorCompleted(Task predecessor, double transferTime) {
+        graph.dataReadyTime[index] = Math.max(graph.dataReadyTime[index], predecessor.getCompletionTime() + transferTime);
+        if (predecessor.getAssignedVM() != null) {
+            graph.addPredecessorVm(index, predecessor.getAssignedVM());
+        }
+        return --graph.pendingPredecessors[index] == 0;
+    }
+
+    /**
+     * بیشینهٔ (زمان اتمام + زمان انتقال داده) روی پدرانی که تا الان تمام شده‌اند.
+     */
+    public double getDataReadyTime() {
+        return graph.dataReadyTime[index];
+    }
+
+    /**
+     * انحراف نرمال استاندارد زمان اجرای واقعی این تسک؛ یک بار از جریان تصادفی خود تسک گرفته می‌شود.
+     */
+    public double getRuntimeDeviate(RandomStreams randomStreams) {
+        if (Double.isNaN(graph.runtimeDeviate[index])) {
+            graph.runtimeDeviate[index] = randomStreams.taskStream(this).nextGaussian();
+        }
+        return graph.runtimeDeviate[index];
+    }
+
+    public boolean hasPredecessorOn(Vm vm) {
+        return graph.predecessorVms[index] != null && graph.predecessorVms[index].contains(vm);
+    }
+
+    /**
+     * آیا رویداد اتمام این تسک در شبیه‌سازی پردازش شده است؟
+     * (completionTime از لحظهٔ زمان‌بندی مقدار دارد و نشانهٔ اتمام نیست)
+     */
+    public boolean isCompleted() {
+        return graph.completed[index];
+    }
+
+    public void markCompleted() {
+        if (!graph.completed[index]) {
+            graph.completed[index] = true;
+            graph.completedCount++;
+        }
     }
 
     public String getId() {
-        return id;
+        return graph.ids[index];
     }
 
     public double getMeanExecutionTime() {
-        return meanExecutionTime;
+        return graph.meanExecutionTime[index];
     }
 
     public double getVarianceExecutionTime() {
-        return varianceExecutionTime;
+        return graph.varianceExecutionTime[index];
     }
 
+    /**
+     * زمان انتقال کل فایل‌های ورودی تسک؛ برای هزینهٔ یک یال مشخص از {@link #getDataTransferTime(Task)} استفاده کنید.
+     */
     public double getDataTransferTime() {
-        return dataTransferTime;
+        return graph.dataTransferTime[index];
     }
 
     public Workflow getWorkflow() {
-        return workflow;
+        return graph.getWorkflow();
     }
 
     public List<Task> getPredecessors() {
-        return predecessors;
+        return graph.predecessorsOf(index);
     }
 
     public List<Task> getSuccessors() {
-        return successors;
+        return graph.successorsOf(index);
     }
 
     public double getEarliestStartTime() {
-        return earliestStartTime;
+        return graph.earliestStartTime[index];
     }
 
     public void setEarliestStartTime(double earliestStartTime) {
-        this.earliestStartTime = earliestStartTime;
+        graph.earliestStartTime[index] = earliestStartTime;
     }
 
     public double getLatestCompletionTime() {
-        return latestCompletionTime;
+        return graph.latestCompletionTime[index];
     }
 
     public void setLatestCompletionTime(double latestCompletionTime) {
-        this.latestCompletionTime = latestCompletionTime;
+        graph.latestCompletionTime[index] = latestCompletionTime;
     }
 
     public double getSubDeadline() {
-        return subDeadline;
+        return graph.subDeadline[index];
     }
 
     public void setSubDeadline(double subDeadline) {
-        this.subDeadline = subDeadline;
+        graph.subDeadline[index] = subDeadline;
     }
 
     public double getPriority() {
-        return priority;
+        return graph.priority[index];
     }
 
     public void setPriority(double priority) {
-        this.priority = priority;
+        graph.priority[index] = priority;
     }
 
     public double getStartTime() {
-        return startTime;
+        return graph.startTime[index];
     }
 
     public void setStartTime(double startTime) {
-        this.startTime = startTime;
+        graph.startTime[index] = startTime;
     }
 
     public double getExecutionTime() {
-        return executionTime;
+        return graph.executionTime[index];
     }
 
     public void setExecutionTime(double executionTime) {
-        this.executionTime = executionTime;
+        graph.executionTime[index] = executionTime;
     }
 
     public double getCompletionTime() {
-        return completionTime;
+        return graph.completionTime[index];
     }
 
     public void setCompletionTime(double completionTime) {
-        this.completionTime = completionTime;
+        graph.completionTime[index] = completionTime;
     }
 
     public Vm getAssignedVM() {
-        return assignedVM;
+        return graph.assignedVM[index];
     }
 
     public void setAssignedVM(Vm assignedVM) {
-        this.assignedVM = assignedVM;
+        graph.assignedVM[index] = assignedVM;
     }
 
     public double getCost() {
-        return cost;
+        return graph.cost[index];
     }
 
     public void setCost(double cost) {
-        this.cost = cost;
+        graph.cost[index] = cost;
     }
 
     public double getEnergyConsumption() {
-        return energyConsumption;
+        return graph.energyConsumption[index];
     }
 
     public void setEnergyConsumption(double energyConsumption) {
-        this.energyConsumption = energyConsumption;
+        graph.energyConsumption[index] = energyConsumption;
     }
 
+    /**
+     * زمان انتقال فایل‌هایی که این تسک تولید و targetTask مصرف می‌کند؛ اگر یالی بینشان نباشد صفر است.
+     */
     public double getDataTransferTime(Task targetTask) {
-        return this.dataTransferTime;
+        return targetTask.graph == graph ? graph.getTransferTime(index, targetTask.index) : 0.0;
     }
 }
\ No newline at end of file
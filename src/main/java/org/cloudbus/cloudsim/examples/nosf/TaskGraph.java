@@ -0,0 +1,382 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * گراف تسک‌های یک گردش‌کار به‌صورت ستونی (struct-of-arrays).
+ * هر تسک با یک اندیس int شناخته می‌شود؛ مشخصات و وضعیت زمان‌بندی در آرایه‌های اولیه و
+ * وابستگی‌ها در آرایه‌های CSR (offset + edge) نگه داشته می‌شوند. اشیای {@link Task} فقط
+ * دستگیره‌ای (گراف، اندیس) روی همین ستون‌ها هستند.
+ *
+ * ساختار گراف پس از {@link Builder#build} ثابت است و فقط ستون‌های وضعیت تغییر می‌کنند.
+ */
+public final class TaskGraph {
+    private final Workflow workflow;
+    private final int size;
+
+    // ستون‌های ثابت
+    final String[] ids;
+    final double[] meanExecutionTime;
+    final double[] varianceExecutionTime;
+    final double[] dataTransferTime; // مجموع فایل‌های ورودی تسک، مستقل از یال
+
+    // وابستگی‌ها به‌صورت CSR: پدران تسک i در preds[predOffsets[i] .. predOffsets[i+1])
+    final int[] predOffsets;
+    final int[] preds;
+    final int[] succOffsets;
+    final int[] succs;
+
+    // حجم داده‌ای که روی هر یال منتقل می‌شود، هم‌تراز با preds و succs
+    final long[] predBytes;
+    final long[] succBytes;
+    final double transferRate; // تبدیل بایت به ثانیه
+
+    // ستون‌های وضعیت زمان‌بندی
+    final double[] earliestStartTime;
+    final double[] latestCompletionTime;
+    final double[] subDeadline;
+    final double[] priority;
+    final double[] startTime;
+    final double[] executionTime;
+    final double[] completionTime;
+    final double[] cost;
+    final double[] energyConsumption;
+    final double[] dataReadyTime;
+    final double[] runtimeDeviate; // NaN یعنی هنوز نمونه‌برداری نشده
+    final long[] streamKey; // کلید جریان تصادفی تسک (RandomStreams)؛ فقط وقتی streamKeyReady درست است معتبر است
+    final boolean[] streamKeyReady;
+    final int[] pendingPredecessors;
+    final boolean[] completed;
+    final Vm[] assignedVM;
+    final Set<Vm>[] predecessorVms; // فقط برای تسک‌هایی که لازم باشد ساخته می‌شود
+    int completedCount;
+
+    private final Task[] handles; // هر handle فقط در اولین task(i) ساخته می‌شود
+    private final List<Task> taskList = new TaskList();
+    private Map<String, Integer> indexById; // فقط در صورت جست‌وجو با شناسه ساخته می‌شود
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private TaskGraph(Workflow workflow, int size, String[] ids, double[] meanExecutionTime,
+                      double[] varianceExecutionTime, double[] dataTransferTime,
+                      int[] predOffsets, int[] preds, int[] succOffsets, int[] succs,
+                      long[] predBytes, long[] succBytes, double transferRate) {
+        this.workflow = workflow;
+        this.size = size;
+        this.ids = ids;
+        this.meanExecutionTime = meanExecutionTime;
+        this.varianceExecutionTime = varianceExecutionTime;
+        this.dataTransferTime = dataTransferTime;
+        this.predOffsets = predOffsets;
+        this.preds = preds;
+        this.succOffsets = succOffsets;
+        this.succs = succs;
+        this.predBytes = predBytes;
+        this.succBytes = succBytes;
+        this.transferRate = transferRate;
+
+        this.earliestStartTime = new double[size];
+        this.latestCompletionTime = new double[size];
+        this.subDeadline = new double[size];
+        this.priority = new double[size];
+        this.startTime = new double[size];
+        this.executionTime = new double[size];
+        this.completionTime = new double[size];
+        this.cost = new double[size];
+        this.energyConsumption = new double[size];
+        this.dataReadyTime = new double[size];
+        this.runtimeDeviate = new double[size];
+        Arrays.fill(runtimeDeviate, Double.NaN);
+        this.streamKey = new long[size];
+        this.streamKeyReady = new boolean[size];
+        this.pendingPredecessors = new int[size];
+        for (int i = 0; i < size; i++) {
+            pendingPredecessors[i] = predOffsets[i + 1] - predOffsets[i];
+        }
+        this.completed = new boolean[size];
+        this.assignedVM = new Vm[size];
+        this.predecessorVms = new Set[size];
+
+        this.handles = new Task[size];
+    }
+
+    public Workflow getWorkflow() {
+        return workflow;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Task task(int index) {
+        Task task = handles[index];
+        if (task == null) {
+            task = new Task(this, index);
+            handles[index] = task;
+        }
+        return task;
+    }
+
+    /**
+     * تمام تسک‌ها به ترتیب تعریف در فایل (فقط خواندنی).
+     */
+    public List<Task> tasks() {
+        return taskList;
+    }
+
+    /**
+     * اندیس تسک با شناسهٔ داده‌شده، یا -1 اگر وجود نداشته باشد.
+     */
+    public synchronized int indexOf(String id) {
+        if (indexById == null) {
+            indexById = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                indexById.put(ids[i], i);
+            }
+        }
+        return indexById.getOrDefault(id, -1);
+    }
+
+    public String getId(int index) { return ids[index]; }
+    public double getMeanExecutionTime(int index) { return meanExecutionTime[index]; }
+    public double getVarianceExecutionTime(int index) { return varianceExecutionTime[index]; }
+    public double getDataTransferTime(int index) { return dataTransferTime[index]; }
+
+    public int getPredecessorCount(int index) { return predOffsets[index + 1] - predOffsets[index]; }
+    public int getPredecessor(int index, int k) { return preds[predOffsets[index] + k]; }
+    public int getSuccessorCount(int index) { return succOffsets[index + 1] - succOffsets[index]; }
+    public int getSuccessor(int index, int k) { return succs[succOffsets[index] + k]; }
+
+    public long getPredecessorBytes(int index, int k) { return predBytes[predOffsets[index] + k]; }
+    public long getSuccessorBytes(int index, int k) { return succBytes[succOffsets[index] + k]; }
+    public double getPredecessorTransferTime(int index, int k) { return predBytes[predOffsets[index] + k] / transferRate; }
+    public double getSuccessorTransferTime(int index, int k) { return succBytes[succOffsets[index] + k] / transferRate; }
+
+    /**
+     * زمان انتقال داده روی یال parent → child؛ اگر یالی بین این دو نباشد صفر است.
+     * مسیرهای پرتکرار باید از نسخه‌های مبتنی بر اندیس یال استفاده کنند.
+     */
+    public double getTransferTime(int parent, int child) {
+        for (int k = succOffsets[parent]; k < succOffsets[parent + 1]; k++) {
+            if (succs[k] == child) {
+                return succBytes[k] / transferRate;
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * تعداد تسک‌هایی که رویداد اتمامشان پردازش شده است.
+     */
+    public int getCompletedCount() { return completedCount; }
+
+    public double getEarliestStartTime(int index) { return earliestStartTime[index]; }
+    public void setEarliestStartTime(int index, double value) { earliestStartTime[index] = value; }
+    public double getLatestCompletionTime(int index) { return latestCompletionTime[index]; }
+    public void setLatestCompletionTime(int index, double value) { latestCompletionTime[index] = value; }
+    public double getSubDeadline(int index) { return subDeadline[index]; }
+    public void setSubDeadline(int index, double value) { subDeadline[index] = value; }
+    public double getCompletionTime(int index) { return completionTime[index]; }
+    public boolean isReady(int index) { return pendingPredecessors[index] == 0; }
+
+    List<Task> predecessorsOf(int index) {
+        return new NeighbourList(predOffsets[index], predOffsets[index + 1], preds);
+    }
+
+    List<Task> successorsOf(int index) {
+        return new NeighbourList(succOffsets[index], succOffsets[index + 1], succs);
+    }
+
+    void addPredecessorVm(int index, Vm vm) {
+        if (predecessorVms[index] == null) {
+            predecessorVms[index] = new HashSet<>();
+        }
+        predecessorVms[index].add(vm);
+    }
+
+    /**
+     * ترتیب توپولوژیک اندیس‌ها با الگوریتم Kahn در زمان O(V+E).
+     */
+    public int[] topologicalOrder() {
+        int[] inDegree = new int[size];
+        int[] order = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < size; i++) {
+            inDegree[i] = getPredecessorCount(i);
+            if (inDegree[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+        // خود آرایهٔ order نقش صف را دارد
+        while (head < tail) {
+            int current = order[head++];
+            for (int k = succOffsets[current]; k < succOffsets[current + 1]; k++) {
+                int succ = succs[k];
+                if (--inDegree[succ] == 0) {
+                    order[tail++] = succ;
+                }
+            }
+        }
+
+        if (tail != size) {
+            throw new IllegalStateException("Workflow " + workflow.getId() + " contains a dependency cycle");
+        }
+        return order;
+    }
+
+    // نمای فقط خواندنی روی تمام تسک‌ها؛ handleها هنگام پیمایش ساخته می‌شوند
+    private final class TaskList extends AbstractList<Task> implements RandomAccess {
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return task(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // نمای فقط خواندنی روی یک بازه از آرایهٔ یال‌ها
+    private final class NeighbourList extends AbstractList<Task> implements RandomAccess {
+        private final int from;
+        private final int to;
+        private final int[] edges;
+
+        NeighbourList(int from, int to, int[] edges) {
+            this.from = from;
+            this.to = to;
+            this.edges = edges;
+        }
+
+        @Override
+        public Task get(int k) {
+            if (k < 0 || k >= to - from) {
+                throw new IndexOutOfBoundsException(k);
+            }
+            return task(edges[from + k]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * سازندهٔ گراف؛ تسک‌ها و یال‌ها را در آرایه‌های قابل رشد جمع می‌کند و در build به CSR تبدیل می‌کند.
+     * ترتیب لیست پدران و فرزندان هر تسک همان ترتیب اضافه شدن یال‌هاست.
+     */
+    public static final class Builder {
+        private String[] ids = new String[16];
+        private double[] meanExecutionTime = new double[16];
+        private double[] varianceExecutionTime = new double[16];
+        private double[] dataTransferTime = new double[16];
+        private int size;
+        private int[] edgeParents = new int[16];
+        private int[] edgeChildren = new int[16];
+        private long[] edgeBytes = new long[16];
+        private int edgeCount;
+        private final Map<String, Integer> indexById = new HashMap<>();
+
+        public int addTask(String id, double meanExecutionTime, double varianceExecutionTime, double dataTransferTime) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                this.meanExecutionTime = Arrays.copyOf(this.meanExecutionTime, capacity);
+                this.varianceExecutionTime = Arrays.copyOf(this.varianceExecutionTime, capacity);
+                this.dataTransferTime = Arrays.copyOf(this.dataTransferTime, capacity);
+            }
+            ids[size] = id;
+            this.meanExecutionTime[size] = meanExecutionTime;
+            this.varianceExecutionTime[size] = varianceExecutionTime;
+            this.dataTransferTime[size] = dataTransferTime;
+            indexById.put(id, size);
+            return size++;
+        }
+
+        public int indexOf(String id) {
+            return indexById.getOrDefault(id, -1);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return اندیس یال، برای مقداردهی بعدی حجم داده با {@link #setEdgeBytes}.
+         */
+        public int addEdge(int parent, int child) {
+            if (edgeCount == edgeParents.length) {
+                edgeParents = Arrays.copyOf(edgeParents, edgeCount * 2);
+                edgeChildren = Arrays.copyOf(edgeChildren, edgeCount * 2);
+                edgeBytes = Arrays.copyOf(edgeBytes, edgeCount * 2);
+            }
+            edgeParents[edgeCount] = parent;
+            edgeChildren[edgeCount] = child;
+            edgeBytes[edgeCount] = 0L;
+            return edgeCount++;
+        }
+
+        public int edgeCount() { return edgeCount; }
+        public int edgeParent(int edge) { return edgeParents[edge]; }
+        public int edgeChild(int edge) { return edgeChildren[edge]; }
+        public void setEdgeBytes(int edge, long bytes) { edgeBytes[edge] = bytes; }
+
+        /**
+         * گراف را از روی یال‌های اضافه‌شده می‌سازد و به گردش‌کار متصل می‌کند.
+         *
+         * @param transferRate تعداد بایت منتقل‌شده در هر ثانیه روی یک یال
+         */
+        public TaskGraph build(Workflow workflow, double transferRate) {
+            int[] predOffsets = new int[size + 1];
+            int[] succOffsets = new int[size + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                predOffsets[edgeChildren[e] + 1]++;
+                succOffsets[edgeParents[e] + 1]++;
+            }
+            for (int i = 0; i < size; i++) {
+                predOffsets[i + 1] += predOffsets[i];
+                succOffsets[i + 1] += succOffsets[i];
+            }
+            int[] preds = new int[edgeCount];
+            int[] succs = new int[edgeCount];
+            long[] predBytes = new long[edgeCount];
+            long[] succBytes = new long[edgeCount];
+            int[] predFill = Arrays.copyOf(predOffsets, size);
+            int[] succFill = Arrays.copyOf(succOffsets, size);
+            for (int e = 0; e < edgeCount; e++) {
+                int p = predFill[edgeChildren[e]]++;
+                int s = succFill[edgeParents[e]]++;
+                preds[p] = edgeParents[e];
+                succs[s] = edgeChildren[e];
+                predBytes[p] = edgeBytes[e];
+                succBytes[s] = edgeBytes[e];
+            }
+            return build(workflow, transferRate, predOffsets, preds, succOffsets, succs, predBytes, succBytes);
+        }
+
+        /**
+         * گراف را با آرایه‌های CSR آماده (مثلاً خوانده‌شده از DagCache) می‌سازد؛ یال‌های اضافه‌شده نادیده گرفته می‌شوند.
+         */
+        public TaskGraph build(Workflow workflow, double transferRate, int[] predOffsets, int[] preds,
+                               int[] succOffsets, int[] succs, long[] predBytes, long[] succBytes) {
+            TaskGraph graph = new TaskGraph(workflow, size, Arrays.copyOf(ids, size),
+                    Arrays.copyOf(meanExecutionTime, size), Arrays.copyOf(varianceExecutionTime, size),
+                    Arrays.copyOf(dataTransferTime, size), predOffsets, preds, succOffsets, succs,
+                    predBytes, succBytes, transferRate);
+            workflow.setGraph(graph);
+            return graph;
+        }
+    }
+}
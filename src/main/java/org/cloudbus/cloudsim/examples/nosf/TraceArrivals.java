@@ -0,0 +1,70 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ورود گردش‌کارها از روی فایل trace با خطوط {@code arrivalTime,workflowFile}.
+ * خطوط خالی و خطوطی که با # شروع می‌شوند نادیده گرفته می‌شوند، مسیرهای نسبی نسبت به پوشهٔ فایل trace
+ * تفسیر می‌شوند و فایل به‌صورت تدریجی خوانده می‌شود، پس trace می‌تواند هر اندازه‌ای داشته باشد.
+ * زمان‌های ورود باید غیرنزولی باشند.
+ */
+public class TraceArrivals implements WorkflowArrivals, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(TraceArrivals.class.getName());
+
+    private final SimulationContext context;
+    private final Path traceFile;
+    private final BufferedReader reader;
+    private double lastArrivalTime = Double.NEGATIVE_INFINITY;
+    private int lineNumber;
+
+    public TraceArrivals(SimulationContext context, String traceFile) throws IOException {
+        this.context = context;
+        this.traceFile = Path.of(traceFile).toAbsolutePath();
+        this.reader = Files.newBufferedReader(this.traceFile, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Workflow next() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                if (comma < 0) {
+                    throw new IllegalArgumentException(traceFile + ":" + lineNumber + ": expected arrivalTime,workflowFile");
+                }
+                double arrivalTime = Double.parseDouble(line.substring(0, comma).trim());
+                if (arrivalTime < lastArrivalTime) {
+                    throw new IllegalArgumentException(traceFile + ":" + lineNumber + ": arrival times must be non-decreasing");
+                }
+                lastArrivalTime = arrivalTime;
+
+                String workflowFile = traceFile.getParent().resolve(line.substring(comma + 1).trim()).normalize().toString();
+                try {
+                    return Workflow.load(workflowFile, arrivalTime, context);
+                } catch (Exception e) {
+                    LOGGER.log(Level.SEVERE, "Failed to load workflow file " + workflowFile, e);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read arrival trace " + traceFile, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,193 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * بازخوانی ردپای {@link SchedulingTrace}: خط زمانی هر VM، هزینه‌ها و makespan را بدون اجرای دوبارهٔ شبیه‌سازی می‌سازد.
+ *
+ * استفاده: TraceReader &lt;traceFile&gt; [--timeline]
+ */
+public final class TraceReader {
+    public record TaskSpan(String workflowId, String taskId, double startTime, double endTime, double cost, double energy) {
+    }
+
+    public static final class VmTimeline {
+        private final String id;
+        private final String typeId;
+        private final double costPerHour;
+        private final double leaseStartTime;
+        private double leaseEndTime = Double.NaN; // NaN یعنی رکورد آزادسازی در ردپا نیست
+        private double leaseDuration;
+        private double billingCost;
+        private int completedTasks;
+        private final List<TaskSpan> tasks = new ArrayList<>();
+
+        VmTimeline(String id, String typeId, double costPerHour, double leaseStartTime) {
+            this.id = id;
+            this.typeId = typeId;
+            this.costPerHour = costPerHour;
+            this.leaseStartTime = leaseStartTime;
+        }
+
+        public String getId() { return id; }
+        public String getTypeId() { return typeId; }
+        public double getCostPerHour() { return costPerHour; }
+        public double getLeaseStartTime() { return leaseStartTime; }
+        public double getLeaseEndTime() { return leaseEndTime; }
+        public double getLeaseDuration() { return leaseDuration; }
+        public double getBillingCost() { return billingCost; }
+        public int getCompletedTasks() { return completedTasks; }
+        public List<TaskSpan> getTasks() { return tasks; }
+
+        public double getBusyTime() {
+            return tasks.stream().mapToDouble(span -> span.endTime() - span.startTime()).sum();
+        }
+    }
+
+    private final Map<String, VmTimeline> vms = new LinkedHashMap<>();
+    private long scheduledTasks;
+    private long completedTasks;
+    private long feedbackEvents;
+    private double makespan;
+    private double executionCost;
+    private double energyConsumption;
+
+    private TraceReader() {
+    }
+
+    public static TraceReader read(Path file) {
+        TraceReader reader = new TraceReader();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SchedulingTrace.MAGIC || buffer.getInt() != SchedulingTrace.VERSION) {
+                throw new IllegalArgumentException("Not a NOSF scheduling trace: " + file);
+            }
+            reader.replay(buffer);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read scheduling trace " + file, e);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated scheduling trace " + file, e);
+        }
+        return reader;
+    }
+
+    private void replay(MappedByteBuffer buffer) {
+        List<String> strings = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            byte type = buffer.get();
+            switch (type) {
+                case SchedulingTrace.END -> {
+                    return;
+                }
+                case SchedulingTrace.STRING -> {
+                    int id = buffer.getInt();
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    if (id != strings.size()) {
+                        throw new IllegalArgumentException("Out-of-order string record " + id);
+                    }
+                    strings.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+                case SchedulingTrace.VM_CREATED -> {
+                    double time = buffer.getDouble();
+                    String vm = strings.get(buffer.getInt());
+                    String vmType = strings.get(buffer.getInt());
+                    double costPerHour = buffer.getDouble();
+                    buffer.getDouble(); // bootTime
+                    vms.put(vm, new VmTimeline(vm, vmType, costPerHour, time));
+                }
+                case SchedulingTrace.TASK_SCHEDULED -> {
+                    buffer.getDouble();
+                    String workflow = strings.get(buffer.getInt());
+                    String task = strings.get(buffer.getInt());
+                    VmTimeline vm = vm(strings.get(buffer.getInt()));
+                    TaskSpan span = new TaskSpan(workflow, task, buffer.getDouble(), buffer.getDouble(),
+                            buffer.getDouble(), buffer.getDouble());
+                    vm.tasks.add(span);
+                    scheduledTasks++;
+                    makespan = Math.max(makespan, span.endTime());
+                    executionCost += span.cost();
+                    energyConsumption += span.energy();
+                }
+                case SchedulingTrace.TASK_COMPLETED -> {
+                    buffer.getDouble();
+                    buffer.getInt();
+                    buffer.getInt();
+                    vm(strings.get(buffer.getInt())).completedTasks++;
+                    completedTasks++;
+                }
+                case SchedulingTrace.FEEDBACK -> {
+                    buffer.position(buffer.position() + Double.BYTES + 2 * Integer.BYTES + 2 * Double.BYTES);
+                    feedbackEvents++;
+                }
+                case SchedulingTrace.VM_RELEASED -> {
+                    double time = buffer.getDouble();
+                    VmTimeline vm = vm(strings.get(buffer.getInt()));
+                    vm.leaseEndTime = time;
+                    vm.leaseDuration = buffer.getDouble();
+                    vm.billingCost = buffer.getDouble();
+                }
+                default -> throw new IllegalArgumentException("Unknown trace record type " + type
+                        + " at offset " + (buffer.position() - 1));
+            }
+        }
+    }
+
+    private VmTimeline vm(String id) {
+        VmTimeline vm = vms.get(id);
+        if (vm == null) {
+            throw new IllegalArgumentException("Trace references VM " + id + " before it was created");
+        }
+        return vm;
+    }
+
+    public Collection<VmTimeline> getVms() { return vms.values(); }
+    public long getScheduledTasks() { return scheduledTasks; }
+    public long getCompletedTasks() { return completedTasks; }
+    public long getFeedbackEvents() { return feedbackEvents; }
+    public double getMakespan() { return makespan; }
+    public double getExecutionCost() { return executionCost; }
+    public double getEnergyConsumption() { return energyConsumption; }
+
+    public double getBillingCost() {
+        return vms.values().stream().mapToDouble(VmTimeline::getBillingCost).sum();
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: TraceReader <traceFile> [--timeline]");
+            return;
+        }
+        boolean timeline = args.length > 1 && args[1].equals("--timeline");
+        TraceReader trace = read(Path.of(args[0]));
+
+        System.out.printf("Scheduled Tasks: %d (completed %d, feedback events %d)%n",
+                trace.getScheduledTasks(), trace.getCompletedTasks(), trace.getFeedbackEvents());
+        System.out.printf("Makespan: %.2f sec%n", trace.getMakespan());
+        System.out.printf("Total VM Rental Cost (Billing): $%.2f%n", trace.getBillingCost());
+        System.out.printf("Total VM Rental Cost (Execution): $%.2f%n", trace.getExecutionCost());
+        System.out.printf("Total Energy Consumption: %.0f Watt-seconds%n", trace.getEnergyConsumption());
+        System.out.printf("Number of VMs Used: %d%n", trace.getVms().size());
+        for (VmTimeline vm : trace.getVms()) {
+            System.out.printf("  VM %s: Type=%s, Lease=[%.1f, %.1f], Leasing-Duration=%.1f sec, Busy=%.1f sec, Tasks=%d, Billing-Cost=$%.2f%n",
+                    vm.getId(), vm.getTypeId(), vm.getLeaseStartTime(), vm.getLeaseEndTime(), vm.getLeaseDuration(),
+                    vm.getBusyTime(), vm.getTasks().size(), vm.getBillingCost());
+            if (timeline) {
+                for (TaskSpan span : vm.getTasks()) {
+                    System.out.printf("    %s/%s: %.2f -> %.2f%n", span.workflowId(), span.taskId(), span.startTime(), span.endTime());
+                }
+            }
+        }
+    }
+}
@@ -2,15 +2,16 @@ package org.cloudbus.cloudsim.examples.nosf;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.logging.FileHandler;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import javax.xml.parsers.DocumentBuilderFactory;
-import java.util.Iterator;
 
 
 import org.w3c.dom.Document;
@@ -18,7 +19,7 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
 public class VMFactory {
-    private static final Logger LOGGER = Logger.getLogger(VMFactory.class.getName());
+    private static final double MIN_EXECUTION_TIME = 0.1;
     
     private static class VMType {
         String id;
@@ -30,15 +31,51 @@ public class VMFactory {
 
     private final List<VMType> vmTypes = new ArrayList<>();
     private final List<Vm> activeVMs = new ArrayList<>();
-    private final List<Vm> allVMs = new ArrayList<>();
-    private final Random random = new Random(); // برای شبیه‌سازی نوسان عملکرد
+    // ایندکس VMهای فعال بر اساس زمان در دسترس بودن؛ کلید هر VM فقط از طریق reindex تغییر می‌کند
+    private final NavigableSet<Vm> vmsByAvailableTime = new TreeSet<>(
+            Comparator.comparingDouble(Vm::getIndexedAvailableTime).thenComparingInt(Vm::getSequence));
+    // بدون retainCompletedTasks، VMهای آزادشده پس از محاسبهٔ هزینه از این مجموعه حذف و در retiredBillingCost جمع می‌شوند
+    private final Set<Vm> allVMs = new LinkedHashSet<>();
+    private double retiredBillingCost = 0.0;
+    private double retiredLeaseTime = 0.0;
+    // صف اولویت مرزهای دورهٔ صورتحساب VMها؛ کلید هر VM فقط وقتی بیرون از صف است تغییر می‌کند
+    private final PriorityQueue<Vm> billingBoundaries = new PriorityQueue<>(
+            Comparator.comparingDouble(Vm::getNextReleaseCheckTime).thenComparingInt(Vm::getSequence));
+    private final RandomStreams randomStreams; // برای شبیه‌سازی نوسان عملکرد
 
+    private final SimulationContext context;
     private final int maxVMs;
     private int vmCounter = 0;
+    private Consumer<Vm> leaseListener = vm -> {};
+    private boolean retainCompletedTasks;
+    private final MetricsRegistry.Histogram candidateVms;
+    private final MetricsRegistry.Counter reusedVms;
+    private final MetricsRegistry.Counter leasedVms;
 
-    public VMFactory(String configFile, int maxVMs) {
-        this.maxVMs = maxVMs;
-        loadVMTypes(configFile);
+    public VMFactory(SimulationContext context) {
+        this(context, new MetricsRegistry());
+    }
+
+    public VMFactory(SimulationContext context, MetricsRegistry metrics) {
+        this.context = context;
+        this.candidateVms = metrics.histogram("nosf_find_suitable_vm_candidates", "VMs evaluated per findSuitableVM call");
+        this.reusedVms = metrics.counter("nosf_vm_reused_total", "Tasks placed on an already leased VM");
+        this.leasedVms = metrics.counter("nosf_vm_leased_total", "Tasks that required leasing a new VM");
+        this.maxVMs = context.getMaxVMs();
+        this.retainCompletedTasks = context.isRetainCompletedTasks();
+        this.randomStreams = new RandomStreams(context.getSeed());
+        loadVMTypes(context.getConfigFile());
+    }
+
+    /**
+     * شنونده‌ای که پس از اجارهٔ هر VM جدید فراخوانی می‌شود (مثلاً برای ثبت رویدادهای بوت و صورتحساب).
+     */
+    public void setLeaseListener(Consumer<Vm> leaseListener) {
+        this.leaseListener = leaseListener;
+    }
+
+    public void setRetainCompletedTasks(boolean retainCompletedTasks) {
+        this.retainCompletedTasks = retainCompletedTasks;
     }
 
     private void loadVMTypes(String configFile) {
@@ -63,84 +100,318 @@ public class VMFactory {
     public Vm findOrCreateVM(Task task, double currentTime) {
         Vm suitableVM = findSuitableVM(task, currentTime);
         if (suitableVM != null) {
+            reusedVms.increment();
             return suitableVM;
         }
+        return leaseVM(task, currentTime);
+    }
+
+    /**
+     * یک VM جدید از ارزان‌ترین نوعی که task را در زیرمهلتش تمام می‌کند اجاره می‌کند؛ اگر سقف VMها پر باشد null.
+     */
+    Vm leaseVM(Task task, double currentTime) {
+        Vm vm = lease(task, currentTime, currentTime, Double.POSITIVE_INFINITY);
+        if (vm != null) {
+            leasedVms.increment();
+        }
+        return vm;
+    }
+
+    /**
+     * برای تسکی که هنوز آماده نشده، VM را پیش از نیاز اجاره می‌کند تا بوت آن با انتظار تسک هم‌پوشانی داشته باشد.
+     * نوع VM با شروع تسک در readyTime سنجیده می‌شود و فقط نوع‌هایی که هزینهٔ اولین دورهٔ صورتحسابشان از budget
+     * بیشتر نیست در نظر گرفته می‌شوند؛ اگر هیچ نوعی در budget نگنجد یا سقف VMها پر باشد null.
+     */
+    public Vm preProvisionVM(Task task, double currentTime, double readyTime, double budget) {
+        return lease(task, currentTime, readyTime, budget);
+    }
 
+    private Vm lease(Task task, double currentTime, double readyTime, double budget) {
         if (activeVMs.size() >= maxVMs) {
-            LOGGER.warning("Cannot create new VM: Maximum VM limit reached.");
+            EventLog.warning("Cannot create new VM: Maximum VM limit reached.");
             return null;
         }
         
-        VMType vmType = selectBestVMTypeForNewLease(task, currentTime);
+        VMType vmType = selectBestVMTypeForNewLease(task, currentTime, readyTime, budget);
         if (vmType == null) {
-            LOGGER.warning("No suitable new VMType found for task " + task.getId());
+            // بدون budget فقط با کاتالوگ خالی پیش می‌آید؛ با budget یعنی هیچ نوعی در آن نمی‌گنجد
+            if (vmTypes.isEmpty()) {
+                EventLog.warning("No suitable new VMType found for task %s", task.getId());
+            }
             return null;
         }
 
         String vmId = "vm-" + (++vmCounter);
-        Vm vm = new Vm(vmId, vmType.id, vmType.processingCapacity, vmType.costPerHour, vmType.energyPerSecond, vmType.bootTime);
+        Vm vm = new Vm(vmId, vmCounter, vmType.id, vmType.processingCapacity, vmType.costPerHour, vmType.energyPerSecond, vmType.bootTime, context);
+        vm.setRetainCompletedTasks(retainCompletedTasks);
         vm.setLeaseStartTime(currentTime); // زمان شروع اجاره
-        vm.setNextReleaseCheckTime(currentTime + NOSFScheduler.getBillingPeriod());
+        vm.setNextReleaseCheckTime(currentTime + context.getBillingPeriod());
         activeVMs.add(vm);
+        vm.setIndexedAvailableTime(vm.getAvailableTime(currentTime));
+        vmsByAvailableTime.add(vm);
+        billingBoundaries.add(vm);
         allVMs.add(vm);
-        LOGGER.info(String.format("Created new VM %s (Type: %s) at time %.2f. Booting...", vmId, vmType.id, currentTime));
+        EventLog.info("Created new VM %s (Type: %s) at time %.2f. Booting...", vmId, vmType.id, currentTime);
+        leaseListener.accept(vm);
         return vm;
     }
 
-    private Vm findSuitableVM(Task task, double currentTime) {
+    /**
+     * آیا اجارهٔ VM جدید ممکن است (سقف VMها پر نیست)؟
+     */
+    public boolean canLease() {
+        return activeVMs.size() < maxVMs && !vmTypes.isEmpty();
+    }
+
+    public double getFirstPeriodCost(Vm vm) {
+        return vm.getCostForDuration(context.getBillingPeriod());
+    }
+
+    private double getFirstPeriodCost(VMType type) {
+        return (type.costPerHour / 3600.0) * context.getBillingPeriod();
+    }
+
+    // پکیج‌خصوصی تا بنچمارک‌های JMH (src/jmh/java) بتوانند آن را جداگانه اندازه بگیرند
+    Vm findSuitableVM(Task task, double currentTime) {
         Vm bestVM = null;
         double minCostGrowth = Double.MAX_VALUE;
-    
-        for (Vm vm : activeVMs) {
+
+        // زمان شروع هیچ‌وقت قبل از زمان در دسترس بودن VM نیست و زمان اجرا حداقل MIN_EXECUTION_TIME است؛
+        // پس VMهایی که بعد از این مرز آزاد می‌شوند نمی‌توانند قبل از زیرمهلت کار را تمام کنند و اصلاً بررسی نمی‌شوند
+        double latestUsefulAvailableTime = task.getSubDeadline() - MIN_EXECUTION_TIME;
+
+        int candidates = 0;
+        for (Vm vm : vmsByAvailableTime) {
+            if (vm.getIndexedAvailableTime() > latestUsefulAvailableTime) {
+                break;
+            }
+            candidates++;
+
             // ابتدا زمان شروع و پایان پیش‌بینی‌شده را محاسبه می‌کنیم
             double predictedStartTime = calculatePredictedStartTime(task, vm, currentTime);
             double predictedExecutionTime = calculatePredictedExecutionTime(task, vm);
             double predictedCompletionTime = predictedStartTime + predictedExecutionTime;
-    
-            // اگر این VM تا زمان شروع پیش‌بینی‌شده آزاد نباشد، حذفش کن
-            if (vm.getAvailableTime(currentTime) > predictedStartTime) {
-                continue;
-            }
-    
+
             // اگر نتواند قبل از زیرمهلت تمامش کند، کنار بگذار
             if (predictedCompletionTime > task.getSubDeadline()) {
                 continue;
             }
-    
+
             // میزان رشد هزینه پس از اتمام دوره‌ٔ صورتحساب
             double remainingBillingTime = vm.getRemainingBillingTime(predictedStartTime);
             double costGrowth = vm.getCostForDuration(Math.max(0, predictedExecutionTime - remainingBillingTime));
-    
-            // کمترین رشد هزینه را انتخاب کن (در صورت تساوی، VM با کمتر بودن زمان بیکاری)
-            if (costGrowth < minCostGrowth
-                || (costGrowth == minCostGrowth && (bestVM == null || vm.getTotalIdleTime() < bestVM.getTotalIdleTime()))
+
+            // کمترین رشد هزینه را انتخاب کن (در صورت تساوی، VM با کمتر بودن زمان بیکاری و سپس VM قدیمی‌تر)
+            // ترتیب پیمایش ایندکس با ترتیب ساخت VMها فرق دارد، پس شمارهٔ VM تساوی نهایی را می‌شکند
+            if (bestVM == null
+                || costGrowth < minCostGrowth
+                || (costGrowth == minCostGrowth && (vm.getTotalIdleTime() < bestVM.getTotalIdleTime()
+                    || (vm.getTotalIdleTime() == bestVM.getTotalIdleTime() && vm.getSequence() < bestVM.getSequence())))
             ) {
                 minCostGrowth = costGrowth;
                 bestVM = vm;
             }
         }
-    
+
+        candidateVms.record(candidates);
         if (bestVM != null) {
-            LOGGER.info("Found suitable existing VM " + bestVM.getId() + " for task " + task.getId());
+            EventLog.info("Found suitable existing VM %s for task %s", bestVM.getId(), task.getId());
         }
         return bestVM;
     }
 
-    private VMType selectBestVMTypeForNewLease(Task task, double currentTime) {
+    /**
+     * تصویر VMهای فعال برای یک دور زمان‌بندی دسته‌ای؛ ترتیب و زمان در دسترس بودن VMها یک بار در ابتدای دور
+     * گرفته می‌شود و پس از هر تخصیص فقط ورودی همان VM جابه‌جا می‌شود.
+     */
+    public CandidateRound openRound(double currentTime) {
+        return new CandidateRound(currentTime);
+    }
+
+    // آرایه‌های تصویر بین دورها دوباره استفاده می‌شوند؛ در هر لحظه فقط یک دور باز است
+    private Vm[] roundVms = new Vm[16];
+    private double[] roundAvailableTimes = new double[16];
+    private int roundSize;
+
+    public final class CandidateRound {
+        private final double currentTime;
+        private Vm[] vms;
+        private double[] availableTimes;
+        private int size;
+        private int chosen = -1; // جایگاه VMی که findOrCreateVM آخرین بار برگرداند؛ assigned بدون جست‌وجو پیدایش می‌کند
+
+        private CandidateRound(double currentTime) {
+            this.currentTime = currentTime;
+            if (roundVms.length < vmsByAvailableTime.size()) {
+                roundVms = new Vm[vmsByAvailableTime.size() * 2];
+                roundAvailableTimes = new double[roundVms.length];
+            }
+            this.vms = roundVms;
+            this.availableTimes = roundAvailableTimes;
+            for (Vm vm : vmsByAvailableTime) {
+                vms[size] = vm;
+                availableTimes[size++] = vm.getIndexedAvailableTime();
+            }
+            // ارجاع به VMهای آزادشدهٔ دور قبل نگه داشته نمی‌شود
+            if (size < roundSize) {
+                Arrays.fill(vms, size, roundSize, null);
+            }
+            roundSize = size;
+        }
+
+        /**
+         * همان معیار findSuitableVM (کمترین رشد هزینه) روی تصویر دور؛ اگر هیچ VMی مناسب نبود، VM جدید اجاره
+         * و به تصویر اضافه می‌شود تا تسک‌های بعدی همین دور هم بتوانند از آن استفاده کنند.
+         */
+        public Vm findOrCreateVM(Task task) {
+            Vm bestVM = null;
+            double minCostGrowth = Double.MAX_VALUE;
+            double latestUsefulAvailableTime = task.getSubDeadline() - MIN_EXECUTION_TIME;
+
+            int candidates = 0;
+            for (int i = 0; i < size && availableTimes[i] <= latestUsefulAvailableTime; i++) {
+                Vm vm = vms[i];
+                candidates++;
+
+                double predictedStartTime = Math.max(calculateDataReadyTime(task, vm, currentTime), availableTimes[i]);
+                double predictedExecutionTime = calculatePredictedExecutionTime(task, vm);
+                if (predictedStartTime + predictedExecutionTime > task.getSubDeadline()) {
+                    continue;
+                }
+
+                double remainingBillingTime = vm.getRemainingBillingTime(predictedStartTime);
+                double costGrowth = vm.getCostForDuration(Math.max(0, predictedExecutionTime - remainingBillingTime));
+                if (bestVM == null
+                    || costGrowth < minCostGrowth
+                    || (costGrowth == minCostGrowth && (vm.getTotalIdleTime() < bestVM.getTotalIdleTime()
+                        || (vm.getTotalIdleTime() == bestVM.getTotalIdleTime() && vm.getSequence() < bestVM.getSequence())))
+                ) {
+                    minCostGrowth = costGrowth;
+                    bestVM = vm;
+                    chosen = i;
+                }
+            }
+
+            candidateVms.record(candidates);
+            if (bestVM != null) {
+                reusedVms.increment();
+                EventLog.info("Found suitable existing VM %s for task %s", bestVM.getId(), task.getId());
+                return bestVM;
+            }
+            Vm leased = leaseVM(task, currentTime);
+            if (leased != null) {
+                chosen = insert(leased, leased.getIndexedAvailableTime());
+            }
+            return leased;
+        }
+
+        /**
+         * برای پیش‌اجاره: اگر VMی از تصویر بتواند task را از readyTime (با زمان اجرای میانگین) تا زیرمهلتش تمام کند،
+         * آن بازه برایش رزرو می‌شود و true برمی‌گردد؛ وگرنه اجارهٔ هنگام نیاز لازم خواهد بود.
+         */
+        public boolean reserve(Task task, double readyTime) {
+            for (int i = 0; i < size && availableTimes[i] <= task.getSubDeadline() - MIN_EXECUTION_TIME; i++) {
+                double startTime = Math.max(readyTime, availableTimes[i]);
+                double completionTime = startTime + sampleExecutionTime(task, vms[i], 0.0);
+                if (completionTime <= task.getSubDeadline()) {
+                    moveLater(i, completionTime);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * VM را برای task پیش از آماده شدنش اجاره می‌کند (preProvisionVM) و آن را با رزرو همین تسک به تصویر می‌افزاید.
+         */
+        public Vm preProvision(Task task, double readyTime, double budget) {
+            Vm vm = preProvisionVM(task, currentTime, readyTime, budget);
+            if (vm != null) {
+                insert(vm, Math.max(readyTime, vm.getIndexedAvailableTime()) + sampleExecutionTime(task, vm, 0.0));
+            }
+            return vm;
+        }
+
+        /**
+         * پس از assignTask فراخوانی می‌شود تا زمان در دسترس بودن vm در تصویر دور به‌روز شود.
+         */
+        public void assigned(Vm vm) {
+            int i = chosen >= 0 && chosen < size && vms[chosen] == vm ? chosen : indexOf(vm);
+            chosen = -1;
+            if (i >= 0) {
+                moveLater(i, vm.getIndexedAvailableTime());
+            }
+        }
+
+        private int indexOf(Vm vm) {
+            for (int i = 0; i < size; i++) {
+                if (vms[i] == vm) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // زمان در دسترس بودن فقط افزایش می‌یابد، پس فقط ورودی‌های بین جایگاه قبلی و جدید یک خانه به عقب می‌روند
+        private void moveLater(int i, double availableTime) {
+            Vm vm = vms[i];
+            int at = i + 1;
+            while (at < size && (availableTimes[at] < availableTime
+                    || (availableTimes[at] == availableTime && vms[at].getSequence() < vm.getSequence()))) {
+                at++;
+            }
+            System.arraycopy(vms, i + 1, vms, i, at - i - 1);
+            System.arraycopy(availableTimes, i + 1, availableTimes, i, at - i - 1);
+            vms[at - 1] = vm;
+            availableTimes[at - 1] = availableTime;
+        }
+
+        // VM تازه اجاره‌شده را در جایگاه مرتبش می‌گذارد و آن جایگاه را برمی‌گرداند
+        private int insert(Vm vm, double availableTime) {
+            if (size == vms.length) {
+                vms = roundVms = Arrays.copyOf(vms, size * 2);
+                availableTimes = roundAvailableTimes = Arrays.copyOf(availableTimes, size * 2);
+            }
+            int at = 0;
+            while (at < size && (availableTimes[at] < availableTime
+                    || (availableTimes[at] == availableTime && vms[at].getSequence() < vm.getSequence()))) {
+                at++;
+            }
+            System.arraycopy(vms, at, vms, at + 1, size - at);
+            System.arraycopy(availableTimes, at, availableTimes, at + 1, size - at);
+            vms[at] = vm;
+            availableTimes[at] = availableTime;
+            roundSize = ++size;
+            return at;
+        }
+    }
+
+    // تسک زودتر از بوت VM و زودتر از readyTime شروع نمی‌شود؛ برای اجارهٔ هنگام نیاز readyTime همان currentTime است.
+    // نوع‌هایی که هزینهٔ اولین دوره‌شان از budget بیشتر است کنار می‌روند تا نوع ارزان‌تری که جا می‌شود انتخاب شود.
+    private VMType selectBestVMTypeForNewLease(Task task, double currentTime, double readyTime, double budget) {
         VMType bestType = null;
+        VMType fastestType = null;
         double minCost = Double.MAX_VALUE;
 
         for (VMType type : vmTypes) {
-            double predictedExecTime = (task.getMeanExecutionTime() / type.processingCapacity) * NOSFScheduler.getNormalizationFactor();
-            double predictedCompletionTime = currentTime + type.bootTime + predictedExecTime;
+            if (getFirstPeriodCost(type) > budget) {
+                continue;
+            }
+            if (fastestType == null || type.processingCapacity > fastestType.processingCapacity) {
+                fastestType = type;
+            }
+            double predictedExecTime = (task.getMeanExecutionTime() / type.processingCapacity) * context.getNormalizationFactor();
+            double predictedCompletionTime = Math.max(currentTime + type.bootTime, readyTime) + predictedExecTime;
 
             // اگر حتی سریع‌ترین VM هم نتواند در زیرمهلت کار را تمام کند، آن را در نظر نگیر
             if (predictedCompletionTime > task.getSubDeadline()) {
                 continue;
             }
 
-            double costForTask = (Math.ceil((type.bootTime + predictedExecTime) / NOSFScheduler.getBillingPeriod())) *
-                                (type.costPerHour / 3600.0) * NOSFScheduler.getBillingPeriod();
+            // اجاره از currentTime تا پایان تسک پرداخت می‌شود
+            double leaseDuration = Math.max(type.bootTime, readyTime - currentTime) + predictedExecTime;
+            double costForTask = (Math.ceil(leaseDuration / context.getBillingPeriod())) *
+                                (type.costPerHour / 3600.0) * context.getBillingPeriod();
             
             if (costForTask < minCost) {
                 minCost = costForTask;
@@ -148,38 +419,105 @@ public class VMFactory {
             }
         }
         
-        // اگر هیچ نوعی مناسب نبود، سریعترین نوع را به عنوان آخرین راه حل انتخاب کن
-        if (bestType == null) {
-             bestType = vmTypes.stream().max(Comparator.comparingDouble(t -> t.processingCapacity)).orElse(null);
-        }
+        // اگر هیچ نوعی مناسب نبود، سریعترین نوع (در budget) را به عنوان آخرین راه حل انتخاب کن
+        return bestType != null ? bestType : fastestType;
+    }
+
+    /**
+     * زمان اتمام پیش‌بینی‌شدهٔ task روی vm اگر صف vm در availableTime خالی شود (همان معیار findSuitableVM).
+     */
+    public double calculatePredictedCompletionTime(Task task, Vm vm, double availableTime, double currentTime) {
+        return Math.max(calculateDataReadyTime(task, vm, currentTime), availableTime) + calculatePredictedExecutionTime(task, vm);
+    }
 
-        return bestType;
+    /**
+     * آیا task روی هیچ VMی هنوز می‌تواند تا زیرمهلتش تمام شود؟ کران پایین، آماده بودن داده بدون هیچ انتقالی
+     * (اتمام آخرین پدر، یا زمان فعلی برای تسک ریشه) به‌اضافهٔ حداقل زمان اجراست؛ اگر این کران از زیرمهلت بگذرد،
+     * calculatePredictedCompletionTime روی هیچ VMی به زیرمهلت نمی‌رسد.
+     */
+    public boolean canMeetSubDeadline(Task task, double currentTime) {
+        TaskGraph graph = task.getGraph();
+        int index = task.getIndex();
+        double earliestDataReadyTime = graph.getPredecessorCount(index) == 0 ? currentTime : 0.0;
+        for (int k = 0; k < graph.getPredecessorCount(index); k++) {
+            earliestDataReadyTime = Math.max(earliestDataReadyTime, graph.completionTime[graph.getPredecessor(index, k)]);
+        }
+        return earliestDataReadyTime + MIN_EXECUTION_TIME <= task.getSubDeadline();
     }
 
     public double calculatePredictedStartTime(Task task, Vm vm, double currentTime) {
-        // برای هر پیشینی، اگر روی همین VM اجرا شده باشه، فقط منتظر اتمامش می‌مونیم
-        double dataReadyTime = task.getPredecessors().stream()
-            .mapToDouble(pred -> 
-                pred.getAssignedVM() != null && pred.getAssignedVM().equals(vm)
-                    ? pred.getCompletionTime()
-                    : pred.getCompletionTime() + pred.getDataTransferTime(task)
-            )
-            .max()
-            .orElse(currentTime);
-    
-        double vmReadyTime = vm.getAvailableTime(currentTime);
-        return Math.max(dataReadyTime, vmReadyTime);
+        return Math.max(calculateDataReadyTime(task, vm, currentTime), vm.getAvailableTime(currentTime));
+    }
+
+    // زمانی که داده‌های ورودی task روی vm آماده است (بدون در نظر گرفتن صف خود VM)
+    private double calculateDataReadyTime(Task task, Vm vm, double currentTime) {
+        double dataReadyTime;
+        if (task.getGraph().getPredecessorCount(task.getIndex()) == 0) {
+            dataReadyTime = currentTime;
+        } else if (!task.hasPredecessorOn(vm)) {
+            // هیچ پدری روی این VM اجرا نشده، پس مقدار افزایشی (با انتقال داده) همان جواب است
+            dataReadyTime = task.getDataReadyTime();
+        } else {
+            // برای هر پیشینی، اگر روی همین VM اجرا شده باشه، فقط منتظر اتمامش می‌مونیم
+            TaskGraph graph = task.getGraph();
+            int index = task.getIndex();
+            dataReadyTime = 0.0;
+            for (int k = 0; k < graph.getPredecessorCount(index); k++) {
+                Task pred = graph.task(graph.getPredecessor(index, k));
+                double predReadyTime = vm.equals(pred.getAssignedVM())
+                        ? pred.getCompletionTime()
+                        : pred.getCompletionTime() + graph.getPredecessorTransferTime(index, k);
+                dataReadyTime = Math.max(dataReadyTime, predReadyTime);
+            }
+        }
+        return dataReadyTime;
     }
     
-    // این متد زمان واقعی اجرا را با کمی نوسان شبیه‌سازی می‌کند
+    // پیش‌بینی زمان اجرا هنگام بررسی یک VM کاندید؛ هر جفت (تسک، VM) جریان تصادفی خودش را دارد
     public double calculatePredictedExecutionTime(Task task, Vm vm) {
-        double meanExecutionOnVm = (task.getMeanExecutionTime() / vm.getProcessingCapacity()) * NOSFScheduler.getNormalizationFactor();
-        double stdDev = meanExecutionOnVm * NOSFScheduler.getVarianceFactorAlpha();
+        double deviate = randomStreams.probeStream(task, vm).nextGaussian();
+        return sampleExecutionTime(task, vm, deviate);
+    }
+
+    // زمان واقعی اجرا؛ انحراف آن فقط به خود تسک بستگی دارد و با تعداد VMهای بررسی‌شده تغییر نمی‌کند
+    public double calculateActualExecutionTime(Task task, Vm vm) {
+        return sampleExecutionTime(task, vm, task.getRuntimeDeviate(randomStreams));
+    }
+
+    private double sampleExecutionTime(Task task, Vm vm, double deviate) {
+        double meanExecutionOnVm = (task.getMeanExecutionTime() / vm.getProcessingCapacity()) * context.getNormalizationFactor();
+        double stdDev = meanExecutionOnVm * context.getVarianceFactorAlpha();
         
         // تولید یک عدد تصادفی با توزیع نرمال برای شبیه‌سازی نوسان عملکرد
-        double actualExecutionTime = random.nextGaussian() * stdDev + meanExecutionOnVm;
+        double executionTime = deviate * stdDev + meanExecutionOnVm;
+
+        return Math.max(MIN_EXECUTION_TIME, executionTime); // حداقل زمان اجرا برای جلوگیری از مقادیر منفی
+    }
 
-        return Math.max(0.1, actualExecutionTime); // حداقل زمان اجرا برای جلوگیری از مقادیر منفی
+    /**
+     * تسک را روی VM قرار می‌دهد و جایگاه VM را در ایندکس زمان در دسترس بودن به‌روز می‌کند.
+     */
+    public void assignTask(Vm vm, Task task, double currentTime) {
+        vmsByAvailableTime.remove(vm);
+        vm.addTask(task);
+        reindex(vm, currentTime);
+    }
+
+    /**
+     * تسک‌های تمام‌شدهٔ یک VM را برمی‌دارد و جایگاه VM را در ایندکس به‌روز می‌کند.
+     */
+    public List<Task> completeTasks(Vm vm, double currentTime) {
+        vmsByAvailableTime.remove(vm);
+        List<Task> justCompleted = vm.updateStatus(currentTime);
+        reindex(vm, currentTime);
+        return justCompleted;
+    }
+
+    private void reindex(Vm vm, double currentTime) {
+        if (vm.isActive()) {
+            vm.setIndexedAvailableTime(vm.getAvailableTime(currentTime));
+            vmsByAvailableTime.add(vm);
+        }
     }
 
     public void releaseVM(Vm vm, double currentTime) {
@@ -187,27 +525,11 @@ public class VMFactory {
             vm.setLeaseEndTime(currentTime);
             vm.setActive(false);
             activeVMs.remove(vm);
-            LOGGER.info(String.format("Released VM %s at time %.2f, Leasing-Duration-Time: %.2f", vm.getId(), currentTime, vm.getTotalLeaseTime()));
+            vmsByAvailableTime.remove(vm);
+            EventLog.info("Released VM %s at time %.2f, Leasing-Duration-Time: %.2f", vm.getId(), currentTime, vm.getTotalLeaseTime());
         }
     }
     
-    public double getNextVmCompletionTime(double currentTime) {
-        return activeVMs.stream()
-                .flatMap(vm -> vm.getRunningTasks().stream())
-                .mapToDouble(Task::getCompletionTime)
-                .filter(t -> t > currentTime)
-                .min()
-                .orElse(Double.MAX_VALUE);
-    }
-
-    public List<Task> updateVmsAndGetCompletedTasks(double currentTime) {
-        List<Task> completedTasks = new ArrayList<>();
-        for (Vm vm : activeVMs) {
-            completedTasks.addAll(vm.updateStatus(currentTime));
-        }
-        return completedTasks;
-    }
-
     public List<Vm> getActiveVMs() {
         return new ArrayList<>(activeVMs);
     }
@@ -216,35 +538,85 @@ public class VMFactory {
         return new ArrayList<>(allVMs);
     }
 
+    /**
+     * مجموع هزینهٔ صورتحساب تمام VMها، شامل VMهایی که پس از آزاد شدن نگهداری نشده‌اند.
+     */
+    public double getTotalBillingCost() {
+        double cost = retiredBillingCost;
+        for (Vm vm : allVMs) {
+            cost += vm.getCost();
+        }
+        return cost;
+    }
+
+    /**
+     * مجموع مدت اجارهٔ تمام VMها، شامل VMهایی که پس از آزاد شدن نگهداری نشده‌اند.
+     */
+    public double getTotalLeaseTime() {
+        double leaseTime = retiredLeaseTime;
+        for (Vm vm : allVMs) {
+            leaseTime += vm.getTotalLeaseTime();
+        }
+        return leaseTime;
+    }
+
+    private void retire(Vm vm) {
+        if (!retainCompletedTasks) {
+            retiredBillingCost += vm.getCost();
+            retiredLeaseTime += vm.getTotalLeaseTime();
+            allVMs.remove(vm);
+        }
+    }
+
     public int getVMCounter() {
         return vmCounter;
     }
 
-    public void checkIdleVMs(double currentTime) {
-        LOGGER.info("==========> checkIdleVMs is called.");
-        for (Iterator<Vm> iterator = activeVMs.iterator(); iterator.hasNext();) {
-            Vm vm = iterator.next();
-            double scheduledTime = vm.getNextReleaseCheckTime();
-
-            // اگر زمان کنونی به راس ساعت ماشین مجازی رسید
-            if (currentTime >= scheduledTime) {
-                if (vm.getRunningTasks().isEmpty()) {
-                    releaseVM(vm, currentTime);
-                    double vmCost = vm.calculateCost(currentTime);  // محاسبه هزینه اختصاصی برای هر ماشین
-                    LOGGER.info(vm.getId() + " is idle. Releasing at time " + currentTime + ", cost=$" + vmCost);
-                    break;  
-                } else {
-                    // اگر هنوز تسک در حال اجرا بود، زمان بررسی بعدی یک ساعت دیگر می‌شود
-                    vm.advanceNextReleaseCheckTime(currentTime, NOSFScheduler.getBillingPeriod());
-                    LOGGER.info(String.format("%s still busy at time %.1f, next leasing time: %.1f, delaying release to next billing period.", vm.getId(), currentTime, vm.getNextReleaseCheckTime()));
-                }
-            }else{
-                LOGGER.info("==========> " + vm.getId() + " was b4 hourly period time.");
+    /**
+     * تمام VMهایی که مرز دورهٔ صورتحسابشان تا زمان کنونی رسیده را بررسی می‌کند:
+     * VMهای بیکار در همین لحظه آزاد می‌شوند و VMهای مشغول به مرز دورهٔ بعدی خودشان منتقل می‌شوند.
+     *
+     * @return VMهایی که در این بررسی آزاد شدند.
+     */
+    public List<Vm> releaseIdleVMs(double currentTime) {
+        List<Vm> released = new ArrayList<>();
+        while (!billingBoundaries.isEmpty() && billingBoundaries.peek().getNextReleaseCheckTime() <= currentTime) {
+            Vm vm = billingBoundaries.poll();
+            if (!vm.isActive()) {
+                continue;
+            }
+
+            if (!vm.hasRunningTasks()) {
+                releaseVM(vm, currentTime);
+                double vmCost = vm.calculateCost(currentTime);  // محاسبه هزینه اختصاصی برای هر ماشین
+                retire(vm);
+                EventLog.info("%s is idle. Releasing at time %s, cost=$%s", vm.getId(), currentTime, vmCost);
+                released.add(vm);
+            } else {
+                // اگر هنوز تسک در حال اجرا بود، بررسی بعدی در مرز دورهٔ صورتحساب بعدی همین VM انجام می‌شود
+                vm.advanceNextReleaseCheckTime(currentTime, context.getBillingPeriod());
+                billingBoundaries.add(vm);
+                EventLog.info("%s still busy at time %.1f, next leasing time: %.1f, delaying release to next billing period.", vm.getId(), currentTime, vm.getNextReleaseCheckTime());
             }
         }
+        return released;
+    }
+
+    /**
+     * نزدیک‌ترین مرز دورهٔ صورتحساب در بین VMهای فعال، یا Double.MAX_VALUE اگر VM فعالی نباشد.
+     */
+    public double getNextBillingBoundary() {
+        while (!billingBoundaries.isEmpty() && !billingBoundaries.peek().isActive()) {
+            billingBoundaries.poll();
+        }
+        return billingBoundaries.isEmpty() ? Double.MAX_VALUE : billingBoundaries.peek().getNextReleaseCheckTime();
     }
 
-    public void calculateFinalBillingCost(double currentTime) {
+    /**
+     * @return VMهایی که در پایان شبیه‌سازی آزاد و صورتحساب شدند.
+     */
+    public List<Vm> calculateFinalBillingCost(double currentTime) {
+        List<Vm> released = new ArrayList<>();
         // بررسی تمام ماشین‌های مجازی که در حال استفاده هستند
         for (Vm vm : getActiveVMs()) {
             double vmStartTime = vm.getStartReleaseTime();
@@ -254,9 +626,12 @@ public class VMFactory {
             if (vmEndTime > vmStartTime) {
                 releaseVM(vm, currentTime);
                 double cost = vm.calculateCost(currentTime);
-                LOGGER.info(String.format("Final billing for %s: Cost=$%.2f, Energy= %.2f Ws", vm.getId(),cost,vm.getEnergyConsumption()));
+                retire(vm);
+                EventLog.info("Final billing for %s: Cost=$%.2f, Energy= %.2f Ws", vm.getId(),cost,vm.getEnergyConsumption());
+                released.add(vm);
             }
         }
+        return released;
     }
     
 }
\ No newline at end of file
@@ -1,14 +1,19 @@
 package org.cloudbus.cloudsim.examples.nosf;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 public class Vm {
     private final String id;
+    private final int sequence;
     private final double processingCapacity;
     private final double costPerHour;
     private final double energyPerSecond;
     private final double bootTime;
+    private final SimulationContext context;
     private boolean active;
     private double predictedCompletionTime;
     private double totalActiveTime;
@@ -19,16 +24,26 @@ public class Vm {
     private double leaseStartTime;
     private double leaseEndTime;
     private double nextReleaseCheckTime;
-    private final List<Task> runningTasks = new ArrayList<>();
+    private double indexedAvailableTime; // کلید این VM در ایندکس VMFactory
+    // صف اولویت تسک‌های در حال اجرا بر اساس زمان اتمام؛ نزدیک‌ترین اتمام همیشه در سر صف است
+    private final PriorityQueue<Task> runningTasks = new PriorityQueue<>(Comparator.comparingDouble(Task::getCompletionTime));
+    private double latestRunningCompletionTime; // بیشینهٔ زمان اتمام تسک‌های در حال اجرا (کش شده)
+    private double lastCompletionTime = -1; // زمان اتمام آخرین تسک تمام‌شده؛ -1 یعنی هنوز تسکی تمام نشده
+    private boolean retainCompletedTasks = true;
     private final List<Task> completedTasks = new ArrayList<>();
+    private int completedTaskCount;
+    private double completedExecutionTime;
 
-    public Vm(String id, String typeId, double processingCapacity, double costPerHour, double energyPerSecond, double bootTime) {
+    public Vm(String id, int sequence, String typeId, double processingCapacity, double costPerHour, double energyPerSecond, double bootTime,
+              SimulationContext context) {
         this.id = id;
+        this.sequence = sequence;
         this.typeId = typeId;
         this.processingCapacity = processingCapacity;
         this.costPerHour = costPerHour;
         this.energyPerSecond = energyPerSecond;
         this.bootTime = bootTime;
+        this.context = context;
         this.active = true;
         this.predictedCompletionTime = 0.0;
         this.totalActiveTime = 0.0;
@@ -41,6 +56,21 @@ public class Vm {
         return id;
     }
 
+    /**
+     * شمارهٔ ترتیبی ساخت VM؛ برای شکستن تساوی‌ها به نفع VM قدیمی‌تر استفاده می‌شود.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    double getIndexedAvailableTime() {
+        return indexedAvailableTime;
+    }
+
+    void setIndexedAvailableTime(double indexedAvailableTime) {
+        this.indexedAvailableTime = indexedAvailableTime;
+    }
+
     public double getProcessingCapacity() {
         return processingCapacity;
     }
@@ -136,7 +166,7 @@ public class Vm {
             return leaseStartTime + bootTime;
         }
         // در غیر این صورت، زمان اتمام آخرین تسک در حال اجراست
-        return runningTasks.stream().mapToDouble(Task::getCompletionTime).max().orElse(leaseStartTime + bootTime);
+        return latestRunningCompletionTime;
     }
 
     public boolean isAvailable(double currentTime) {
@@ -144,26 +174,58 @@ public class Vm {
     }
 
     public void addTask(Task task) {
+        if (runningTasks.isEmpty() || task.getCompletionTime() > latestRunningCompletionTime) {
+            latestRunningCompletionTime = task.getCompletionTime();
+        }
         runningTasks.add(task);
         this.totalActiveTime += task.getExecutionTime();
         // محاسبه idle time بین اتمام تسک قبلی و شروع تسک جدید
-        double lastCompletion = completedTasks.isEmpty() ? (leaseStartTime + bootTime) : completedTasks.get(completedTasks.size()-1).getCompletionTime();
+        double lastCompletion = lastCompletionTime < 0 ? (leaseStartTime + bootTime) : lastCompletionTime;
         this.totalIdleTime += task.getStartTime() - lastCompletion;
     }
 
+    /**
+     * تسک‌هایی که تا زمان کنونی تمام شده‌اند را از سر صف برمی‌دارد (O(log n) برای هر تسک).
+     * تا وقتی صف خالی نشده، بیشینهٔ زمان اتمام تغییر نمی‌کند چون تسک‌ها به ترتیب زمان اتمام خارج می‌شوند.
+     */
     public List<Task> updateStatus(double currentTime) {
         List<Task> justCompleted = new ArrayList<>();
-        for (Task task : new ArrayList<>(runningTasks)) {
-            if (task.getCompletionTime() <= currentTime) {
-                runningTasks.remove(task);
+        while (!runningTasks.isEmpty() && runningTasks.peek().getCompletionTime() <= currentTime) {
+            Task task = runningTasks.poll();
+            lastCompletionTime = task.getCompletionTime();
+            completedTaskCount++;
+            completedExecutionTime += task.getExecutionTime();
+            if (retainCompletedTasks) {
                 completedTasks.add(task);
-                justCompleted.add(task);
             }
+            justCompleted.add(task);
         }
         return justCompleted;
     }
 
-    public List<Task> getRunningTasks() { return runningTasks; }
+    public Collection<Task> getRunningTasks() { return runningTasks; }
+
+    public boolean hasRunningTasks() {
+        return !runningTasks.isEmpty();
+    }
+
+    /**
+     * اگر false باشد، تسک‌های تمام‌شده نگهداری نمی‌شوند و فقط شمارنده‌های تجمعی به‌روز می‌شوند
+     * (برای اجراهای طولانی که نباید حافظه با تعداد تسک‌ها رشد کند).
+     */
+    public void setRetainCompletedTasks(boolean retainCompletedTasks) {
+        this.retainCompletedTasks = retainCompletedTasks;
+    }
+
+    public List<Task> getCompletedTasks() { return completedTasks; }
+
+    public int getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    public double getCompletedExecutionTime() {
+        return completedExecutionTime;
+    }
 
     public double getCostForDuration(double duration) {
         return (duration / 3600.0) * this.costPerHour;
@@ -176,7 +238,7 @@ public class Vm {
     public double getRemainingBillingTime(double currentTime) {
         if (leaseStartTime < 0) return 0;
         double elapsedTime = currentTime - leaseStartTime;
-        double billingPeriod = NOSFScheduler.getBillingPeriod();
+        double billingPeriod = context.getBillingPeriod();
         return billingPeriod - (elapsedTime % billingPeriod);
     }
 
@@ -196,10 +258,15 @@ public class Vm {
     }
 
     /**
-     * افزایش نقطهٔ چک به اندازهٔ یک دورهٔ صورتحساب (ساعتی).
+     * انتقال نقطهٔ چک به اولین مرز دورهٔ صورتحساب همین VM (leaseStart + k×billingPeriod) بعد از زمان کنونی.
      */
     public void advanceNextReleaseCheckTime(double currentTime, double billingPeriod) {
-        this.nextReleaseCheckTime = Math.floor(currentTime/ 3600) * billingPeriod + billingPeriod;
+        double elapsedPeriods = Math.floor((currentTime - leaseStartTime) / billingPeriod);
+        this.nextReleaseCheckTime = leaseStartTime + (elapsedPeriods + 1) * billingPeriod;
+        // با زمان شروع اجارهٔ غیرصحیح، خطای گرد کردن در تقسیم می‌تواند همان مرز کنونی را برگرداند
+        while (this.nextReleaseCheckTime <= currentTime) {
+            this.nextReleaseCheckTime += billingPeriod;
+        }
     }
 
     public double calculateCost(double currentTime) {
@@ -1,29 +1,34 @@
 package org.cloudbus.cloudsim.examples.nosf;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-
-import java.io.File;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 
 public class Workflow {
+    private static final Logger LOGGER = Logger.getLogger(Workflow.class.getName());
     private final String id;
     private final double arrivalTime;
-    private final double deadline;
-    private final List<Task> tasks = new ArrayList<>();
-    private final Map<String, Task> taskMap = new HashMap<>();
+    private double deadline;
+    private TaskGraph graph;
     private Task entryTask;
-    private static int workflowCounter = 0;
 
     public Workflow(String id, double arrivalTime, double deadline) {
         this.id = id;
@@ -31,238 +36,256 @@ public class Workflow {
         this.deadline = deadline;
     }
 
-    public static List<Workflow> loadFromXML(String[] workflowFiles) {
+    /**
+     * فایل‌های DAX را به‌صورت موازی (با اندازهٔ استخر loaderThreads از context) بارگذاری می‌کند.
+     * شناسهٔ هر گردش‌کار از روی جایگاه فایل در ورودی تعیین می‌شود، پس به ترتیب پایان پارس فایل‌ها بستگی ندارد.
+     * خطای هر فایل جداگانه گزارش می‌شود و گردش‌کارهای موفق به ترتیب ورودی برگردانده می‌شوند.
+     */
+    public static List<Workflow> loadFromXML(String[] workflowFiles, SimulationContext context) {
+        int firstId = context.reserveWorkflowIds(workflowFiles.length);
+        double arrivalTime = context.getCurrentTime();
+        int threads = Math.min(context.getLoaderThreads(), workflowFiles.length);
+
+        DagCache dagCache = context.getDagCacheDir() != null ? new DagCache(Path.of(context.getDagCacheDir())) : null;
+
         List<Workflow> workflows = new ArrayList<>();
-        try {
+        if (threads <= 1) {
             for (int i = 0; i < workflowFiles.length; i++) {
-                File xmlFile = new File(workflowFiles[i]);
-                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-                DocumentBuilder builder = factory.newDocumentBuilder();
-                Document document = builder.parse(xmlFile);
-                document.getDocumentElement().normalize();
-
-                Map<String, Double> jobRuntimes = parseJobsRuntimes(document);
-                Map<String, List<String>> dependencies = parseDependencies(document);
-                String workflowId = "wf-" + workflowCounter++;
-                double PCPDeadline = computePCPDeadline_1(jobRuntimes, dependencies);
-                double deadline = 2 * PCPDeadline;
-                System.out.println("PCP Runtime for " + workflowId + ": " + PCPDeadline);
-                double arrivalTime = NOSFScheduler.getCurrentTime();
-                Workflow workflow = new Workflow(workflowId, arrivalTime, deadline);
-                PCPDeadline = computePCPDeadline(workflow);
-                
-                // Load tasks
-                parseJobTasks(document, workflow);
-                
-                // Load dependencies
-                applyDependencies(dependencies, workflow);
-
-                // Set entry task
-                workflow.tasks.stream()
-                .filter(task -> task.getPredecessors().isEmpty())
-                .findFirst()
-                .ifPresent(task -> workflow.entryTask = task);
-
-                workflows.add(workflow);
+                try {
+                    workflows.add(loadWorkflow(workflowFiles[i], "wf-" + (firstId + i), arrivalTime, context, dagCache));
+                } catch (Exception e) {
+                    LOGGER.log(Level.SEVERE, "Failed to load workflow file " + workflowFiles[i], e);
+                }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            return workflows;
         }
-        return workflows;
-    }
 
-    public static Map<String, Double> parseJobsRuntimes(Document document) {
-        Map<String, Double> jobRuntimes = new HashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
         try {
-            NodeList jobList = document.getElementsByTagName("job");
-            for (int i = 0; i < jobList.getLength(); i++) {
-                Element jobElement = (Element) jobList.item(i);
-                String taskId = jobElement.getAttribute("id");
-                double runtime = Double.parseDouble(jobElement.getAttribute("runtime"));
-                jobRuntimes.put(taskId, runtime);
+            List<Future<Workflow>> futures = new ArrayList<>();
+            for (int i = 0; i < workflowFiles.length; i++) {
+                String workflowFile = workflowFiles[i];
+                String workflowId = "wf-" + (firstId + i);
+                futures.add(pool.submit(() -> loadWorkflow(workflowFile, workflowId, arrivalTime, context, dagCache)));
             }
-        } catch (Exception e) {
-            System.out.println("Error parsing jobs: " + e);
-        }
-        return jobRuntimes;
-    }
-
-    public static void parseJobTasks(Document document, Workflow workflow){
-        try {
-            NodeList jobList = document.getElementsByTagName("job");
-            for (int i = 0; i < jobList.getLength(); i++) {
-                Element jobElement = (Element) jobList.item(i);
-                String taskId = jobElement.getAttribute("id");
-                double meanExecutionTime = Double.parseDouble(jobElement.getAttribute("runtime"));
-                long totalFileSize = 0;
-                NodeList usesList = jobElement.getElementsByTagName("uses");
-                for (int j = 0; j < usesList.getLength(); j++) {
-                    Element usesElement = (Element) usesList.item(j);
-                    String linkType = usesElement.getAttribute("link");
-                    String sizeUses = usesElement.getAttribute("size");
-                    if (linkType.equals("input") && !sizeUses.isEmpty())
-                        totalFileSize += Long.parseLong(sizeUses);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    workflows.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.SEVERE, "Failed to load workflow file " + workflowFiles[i], e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while loading workflows", e);
                 }
-                double varianceExecutionTime = Math.pow(NOSFScheduler.getVarianceFactorAlpha() * meanExecutionTime, 2);
-                double dataTransferTime = (totalFileSize) / (NOSFScheduler.getBandwidthMbps() * 1_000_000.0); // bandwidth تبدیل به bit/sec
-                
-                Task task = new Task(taskId, meanExecutionTime, varianceExecutionTime, dataTransferTime, workflow);
-                workflow.addTask(task);
             }
-        } catch (Exception e) {
-            System.out.println("Error parsing tasks: " + e);
+        } finally {
+            pool.shutdownNow();
         }
+        return workflows;
     }
 
-    public static Map<String, List<String>> parseDependencies(Document document) {
-        Map<String, List<String>> dependencies = new HashMap<>();
-        try {
-            NodeList childList = document.getElementsByTagName("child");
-            for (int i = 0; i < childList.getLength(); i++) {
-                Element childElement = (Element) childList.item(i);
-                String childId = childElement.getAttribute("ref");
-
-                List<String> parentList = new ArrayList<>();
-                NodeList parentNodes = childElement.getElementsByTagName("parent");
-                for (int j = 0; j < parentNodes.getLength(); j++) {
-                    Element parentElement = (Element) parentNodes.item(j);
-                    parentList.add(parentElement.getAttribute("ref"));
-                }
+    /**
+     * یک فایل DAX را با زمان رسیدن مشخص بارگذاری می‌کند (برای جریان‌های ورود آنلاین).
+     */
+    public static Workflow load(String workflowFile, double arrivalTime, SimulationContext context)
+            throws IOException, XMLStreamException {
+        DagCache dagCache = context.getDagCacheDir() != null ? new DagCache(Path.of(context.getDagCacheDir())) : null;
+        return loadWorkflow(workflowFile, "wf-" + context.reserveWorkflowIds(1), arrivalTime, context, dagCache);
+    }
 
-                dependencies.put(childId, parentList);
-            }
-        } catch (Exception e) {
-            System.out.println("Error parsing dependencies: " + e);
-        }
-        return dependencies;
+    private static Workflow loadWorkflow(String workflowFile, String workflowId, double arrivalTime,
+                                         SimulationContext context, DagCache dagCache)
+            throws IOException, XMLStreamException {
+        Workflow workflow = readGraph(workflowFile, workflowId, arrivalTime, context, dagCache);
+        initialize(workflow, context);
+        return workflow;
     }
 
-    public static void applyDependencies(Map<String, List<String>> dependencies, Workflow workflow) {
-        for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
-            String childId = entry.getKey();
-            Task toTask = workflow.getTaskById(childId);
-    
-            for (String parentId : entry.getValue()) {
-                Task fromTask = workflow.getTaskById(parentId);
-                toTask.addPredecessor(fromTask);
+    // مقداردهی مشترک پس از ساخت گراف (از فایل، کش یا WorkflowGenerator)
+    static void initialize(Workflow workflow, SimulationContext context) {
+        // مهلت گردش‌کار = زمان رسیدن + beta × طول مسیر بحرانی (PCP)؛ مثل زمان اتمام تسک‌ها مطلق است
+        double PCPDeadline = workflow.getCriticalPathLength();
+        workflow.deadline = workflow.getArrivalTime() + context.getDeadlineFactorBeta() * PCPDeadline;
+        EventLog.info("PCP Runtime for %s: %s", workflow.getId(), PCPDeadline);
+
+        // Set entry task
+        TaskGraph graph = workflow.getGraph();
+        for (int i = 0; i < graph.size(); i++) {
+            if (graph.getPredecessorCount(i) == 0) {
+                workflow.entryTask = graph.task(i);
+                break;
             }
         }
     }
 
-    public static double computePCPDeadline_1(Map<String, Double> jobs, Map<String, List<String>> dependencies) {
-    // Compute reverse graph
-    Map<String, List<String>> reverseGraph = new HashMap<>();
-    Map<String, Integer> inDegree = new HashMap<>();
-    Map<String, Double> earliestStart = new HashMap<>();
-
-    // Initialize
-    for (String job : jobs.keySet()) {
-        reverseGraph.put(job, new ArrayList<>());
-        inDegree.put(job, 0);
-        earliestStart.put(job, 0.0);
-    }
-
-    // Fill graph
-    for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
-        String child = entry.getKey();
-        for (String parent : entry.getValue()) {
-            reverseGraph.get(parent).add(child);
-            inDegree.put(child, inDegree.get(child) + 1);
+    // در صورت فعال بودن کش، گراف را از DagCache می‌خواند و فقط در نبود ورودی معتبر XML را پارس و ذخیره می‌کند
+    private static Workflow readGraph(String workflowFile, String workflowId, double arrivalTime,
+                                      SimulationContext context, DagCache dagCache)
+            throws IOException, XMLStreamException {
+        if (dagCache == null) {
+            return parseDax(workflowFile, workflowId, arrivalTime, context, new ArrayList<>());
         }
-    }
-
-    // Topological sort (Kahn's Algorithm)
-    Queue<String> queue = new LinkedList<>();
-    for (String job : inDegree.keySet()) {
-        if (inDegree.get(job) == 0) {
-            queue.add(job);
+        String contentHash = DagCache.contentHash(Path.of(workflowFile));
+        Workflow workflow = dagCache.load(contentHash, workflowId, arrivalTime, context);
+        if (workflow == null) {
+            List<Long> inputSizes = new ArrayList<>();
+            workflow = parseDax(workflowFile, workflowId, arrivalTime, context, inputSizes);
+            dagCache.store(contentHash, workflow, inputSizes);
         }
+        return workflow;
     }
 
-    while (!queue.isEmpty()) {
-        String current = queue.poll();
-        double finishTime = earliestStart.get(current) + jobs.get(current);
-
-        for (String child : reverseGraph.get(current)) {
-            earliestStart.put(child, Math.max(earliestStart.get(child), finishTime));
-            inDegree.put(child, inDegree.get(child) - 1);
-            if (inDegree.get(child) == 0) {
-                queue.add(child);
+    /**
+     * فایل DAX را در یک گذر با StAX می‌خواند و تسک‌ها، حجم فایل‌های ورودی و وابستگی‌ها را مستقیماً می‌سازد.
+     * وابستگی‌ها به ترتیب فایل اعمال می‌شوند؛ فقط یال‌هایی که به تسک تعریف‌نشده اشاره دارند تا پایان فایل نگه داشته می‌شوند.
+     * حجم دادهٔ هر یال مجموع فایل‌هایی است که پدر با link="output" تولید و فرزند با link="input" مصرف می‌کند.
+     */
+    private static Workflow parseDax(String workflowFile, String workflowId, double arrivalTime,
+                                     SimulationContext context, List<Long> inputSizes)
+            throws IOException, XMLStreamException {
+        Workflow workflow = new Workflow(workflowId, arrivalTime, 0.0);
+        TaskGraph.Builder builder = new TaskGraph.Builder();
+        List<String[]> pendingEdges = new ArrayList<>(); // {child, parent}
+        Map<String, List<FileUse>> producersByFile = new HashMap<>();
+        List<FileUse> inputFiles = new ArrayList<>();
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(workflowFile))) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                String jobId = null;
+                double runtime = 0.0;
+                long totalFileSize = 0;
+                String childId = null;
+
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (reader.getLocalName()) {
+                            case "job" -> {
+                                jobId = reader.getAttributeValue(null, "id");
+                                runtime = Double.parseDouble(reader.getAttributeValue(null, "runtime"));
+                                totalFileSize = 0;
+                            }
+                            case "uses" -> {
+                                String linkType = reader.getAttributeValue(null, "link");
+                                String sizeUses = reader.getAttributeValue(null, "size");
+                                String fileName = reader.getAttributeValue(null, "file");
+                                if (fileName == null) {
+                                    fileName = reader.getAttributeValue(null, "name"); // قالب DAX 3
+                                }
+                                long size = sizeUses != null && !sizeUses.isEmpty() ? Long.parseLong(sizeUses) : 0L;
+                                // تسک جاری در پایان عنصر job با اندیس builder.size() اضافه می‌شود
+                                if (jobId != null && "input".equals(linkType)) {
+                                    totalFileSize += size;
+                                    if (fileName != null) {
+                                        inputFiles.add(new FileUse(builder.size(), fileName, size));
+                                    }
+                                } else if (jobId != null && "output".equals(linkType) && fileName != null) {
+                                    producersByFile.computeIfAbsent(fileName, f -> new ArrayList<>(1))
+                                            .add(new FileUse(builder.size(), fileName, size));
+                                }
+                            }
+                            case "child" -> childId = reader.getAttributeValue(null, "ref");
+                            case "parent" -> {
+                                String parentId = reader.getAttributeValue(null, "ref");
+                                if (childId != null && !link(builder, childId, parentId)) {
+                                    pendingEdges.add(new String[]{childId, parentId});
+                                }
+                            }
+                            default -> { }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        switch (reader.getLocalName()) {
+                            case "job" -> {
+                                addTask(builder, jobId, runtime, totalFileSize, context);
+                                inputSizes.add(totalFileSize);
+                                jobId = null;
+                            }
+                            case "child" -> childId = null;
+                            default -> { }
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
             }
         }
-    }
 
-    // Compute max deadline
-    double maxDeadline = 0;
-    for (String job : jobs.keySet()) {
-        maxDeadline = Math.max(maxDeadline, earliestStart.get(job) + jobs.get(job));
+        for (String[] edge : pendingEdges) {
+            if (!link(builder, edge[0], edge[1])) {
+                throw new IllegalArgumentException("Dependency " + edge[1] + " -> " + edge[0]
+                        + " in " + workflowFile + " refers to an undefined job");
+            }
+        }
+        assignEdgeBytes(builder, producersByFile, inputFiles);
+        builder.build(workflow, transferRate(context));
+        return workflow;
     }
-    return maxDeadline;
-}
 
-    /**
-     * طول مسیر بحرانی (طولانی‌ترین مسیر) در ورک‌فلو را محاسبه می‌کند.
-     * این متد از یک رویکرد بازگشتی به همراه مموایزیشن (memoization) برای جلوگیری از محاسبات تکراری استفاده می‌کند.
-     * مقدار بازگشتی، مجموع زمان اجرای تسک‌ها در طولانی‌ترین مسیر از یک تسک ورودی تا یک تسک خروجی است.
-     *
-     * @param workflow ورک‌فلویی که باید مسیر بحرانی آن محاسبه شود.
-     * @return طول مسیر بحرانی (makespan) به عنوان یک مقدار double.
-     */
-    public static double computePCPDeadline(Workflow workflow) {
-        // از یک نقشه برای ذخیره نتایج محاسبات قبلی استفاده می‌کنیم (Memoization)
-        Map<String, Double> memo = new HashMap<>();
-        double maxDeadline = 0.0;
-
-        // طولانی‌ترین مسیر را برای هر تسک خروجی (exit task) محاسبه می‌کنیم
-        for (Task task : workflow.getTasks()) {
-            if (task.getSuccessors().isEmpty()) {
-                double pathLength = getLongestPathTo(task, memo);
-                if (pathLength > maxDeadline) {
-                    maxDeadline = pathLength;
+    private record FileUse(int task, String file, long size) { }
+
+    // حجم هر یال = مجموع فایل‌های ورودی فرزند که همان پدر تولیدشان کرده است؛ کلید نقشه (پدر، فرزند) است.
+    // در DAXهای تولیدی چند تسک ممکن است خروجی هم‌نام داشته باشند (مثل fit.txt در Montage)، پس هر
+    // تولیدکننده با حجم خروجی خودش حساب می‌شود و فقط برای یال‌های واقعی خوانده می‌شود.
+    private static void assignEdgeBytes(TaskGraph.Builder builder, Map<String, List<FileUse>> producersByFile,
+                                        List<FileUse> inputFiles) {
+        Map<Long, Long> bytesByEdge = new HashMap<>();
+        for (FileUse input : inputFiles) {
+            for (FileUse output : producersByFile.getOrDefault(input.file(), List.of())) {
+                if (output.task() != input.task()) {
+                    bytesByEdge.merge(edgeKey(output.task(), input.task()), output.size(), Long::sum);
                 }
             }
         }
-        return maxDeadline;
+        for (int e = 0; e < builder.edgeCount(); e++) {
+            Long bytes = bytesByEdge.get(edgeKey(builder.edgeParent(e), builder.edgeChild(e)));
+            if (bytes != null) {
+                builder.setEdgeBytes(e, bytes);
+            }
+        }
     }
 
-    /**
-     * یک متد کمکی بازگشتی برای پیدا کردن طولانی‌ترین مسیر تا یک تسک مشخص.
-     *
-     * @param task تسکی که طولانی‌ترین مسیر تا آن باید محاسبه شود.
-     * @param memo نقشه‌ای برای ذخیره و بازیابی نتایج محاسبات قبلی.
-     * @return طولانی‌ترین مسیر تا تسک مشخص شده.
-     */
-    private static double getLongestPathTo(Task task, Map<String, Double> memo) {
-        // اگر قبلاً طول مسیر برای این تسک محاسبه شده، از مقدار ذخیره‌شده استفاده کن
-        if (memo.containsKey(task.getId())) {
-            return memo.get(task.getId());
-        }
+    private static long edgeKey(int parent, int child) {
+        return ((long) parent << 32) | (child & 0xFFFFFFFFL);
+    }
 
-        // محاسبه طول مسیر برای پدران (predecessors)
-        double maxPredPathLength = 0.0;
-        if (!task.getPredecessors().isEmpty()) {
-            maxPredPathLength = task.getPredecessors().stream()
-                    .mapToDouble(pred -> getLongestPathTo(pred, memo))
-                    .max()
-                    .orElse(0.0);
-        }
+    // bandwidth تبدیل به bit/sec
+    static double transferRate(SimulationContext context) {
+        return context.getBandwidthMbps() * 1_000_000.0;
+    }
 
-        // طول مسیر تا تسک فعلی برابر است با زمان اجرای خودش + طولانی‌ترین مسیر پدرانش
-        double currentPathLength = task.getMeanExecutionTime() + maxPredPathLength;
+    static int addTask(TaskGraph.Builder builder, String id, double runtime, long totalFileSize, SimulationContext context) {
+        double varianceExecutionTime = Math.pow(context.getVarianceFactorAlpha() * runtime, 2);
+        double dataTransferTime = totalFileSize / transferRate(context);
+        return builder.addTask(id, runtime, varianceExecutionTime, dataTransferTime);
+    }
 
-        // نتیجه را در نقشه ذخیره کن تا دوباره محاسبه نشود
-        memo.put(task.getId(), currentPathLength);
+    // اگر هر دو تسک تعریف شده باشند یال را اضافه می‌کند
+    private static boolean link(TaskGraph.Builder builder, String childId, String parentId) {
+        int child = builder.indexOf(childId);
+        int parent = builder.indexOf(parentId);
+        if (child < 0 || parent < 0) {
+            return false;
+        }
+        builder.addEdge(parent, child);
+        return true;
+    }
 
-        return currentPathLength;
+    void setGraph(TaskGraph graph) {
+        this.graph = graph;
     }
 
-    public void addTask(Task task) {
-        tasks.add(task);
-        taskMap.put(task.getId(), task);
+    public TaskGraph getGraph() {
+        return graph;
     }
 
     public Task getTaskById(String id) {
-        return taskMap.get(id);
+        int index = graph.indexOf(id);
+        return index < 0 ? null : graph.task(index);
     }
 
     public String getId() {
@@ -278,46 +301,62 @@ public class Workflow {
     }
 
     public List<Task> getTasks() {
-        return tasks;
+        return graph != null ? graph.tasks() : List.of();
     }
 
     public Task getEntryTask() {
         return entryTask;
     }
 
+    /**
+     * زمان مطلق پایان آخرین تسک گردش‌کار؛ مهلت هم زمان مطلق است و با همین مقایسه می‌شود.
+     */
+    public double getCompletionTime() {
+        double completionTime = 0.0;
+        for (int i = 0; graph != null && i < graph.size(); i++) {
+            completionTime = Math.max(completionTime, graph.getCompletionTime(i));
+        }
+        return completionTime;
+    }
+
+    /**
+     * مدت اجرای گردش‌کار از لحظهٔ ورود تا پایان آخرین تسک.
+     */
     public double getMakespan() {
-        return tasks.stream()
-                .mapToDouble(Task::getCompletionTime)
-                .max()
-                .orElse(0.0);
+        return getCompletionTime() - arrivalTime;
     }
 
     public boolean isCompleted() {
-        return tasks.stream().allMatch(task -> task.getCompletionTime() > 0);
+        for (int i = 0; graph != null && i < graph.size(); i++) {
+            if (graph.getCompletionTime(i) <= 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean hasDeadlineViolation() {
-        return getMakespan() > deadline;
+        return getCompletionTime() > deadline;
     }
 
-    // دو فیلد جدید برای کش کردن مقادیر محاسبه‌شده
-    private double criticalPathLength = -1;
-    private double totalExecutionTime = -1;
+    private CriticalPath criticalPath; // یک بار پس از ساخت گراف محاسبه می‌شود
 
-    public double getCriticalPathLength() {
-        if (this.criticalPathLength == -1) {
-            this.criticalPathLength = Workflow.computePCPDeadline(this);
+    /**
+     * مسیر بحرانی گردش‌کار؛ مهلت گردش‌کار و توزیع زیرمهلت‌ها هر دو از همین نتیجهٔ کش‌شده استفاده می‌کنند.
+     */
+    public CriticalPath getCriticalPath() {
+        if (criticalPath == null) {
+            criticalPath = CriticalPath.of(graph);
         }
-        return this.criticalPathLength;
+        return criticalPath;
+    }
+
+    public double getCriticalPathLength() {
+        return getCriticalPath().getLength();
     }
 
     public double getTotalExecutionTime() {
-        if (this.totalExecutionTime == -1) {
-            this.totalExecutionTime = getTasks().stream()
-                .mapToDouble(t -> t.getMeanExecutionTime() + Math.sqrt(t.getVarianceExecutionTime()))
-                .sum();
-        }
-        return this.totalExecutionTime;
+        return getCriticalPath().getTotalEstimatedExecutionTime();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+/**
+ * جریان ورود گردش‌کارها برای شبیه‌سازی آنلاین.
+ * زمان‌بند هر بار فقط گردش‌کار بعدی را می‌خواهد (وقتی رویداد ورود قبلی پردازش شد)، پس در هر لحظه
+ * حداکثر یک گردش‌کار آینده در حافظه است و طول جریان به حافظه بستگی ندارد.
+ */
+public interface WorkflowArrivals {
+
+    /**
+     * گردش‌کار بعدی با زمان رسیدن غیرنزولی، یا null اگر جریان تمام شده باشد.
+     */
+    Workflow next();
+}
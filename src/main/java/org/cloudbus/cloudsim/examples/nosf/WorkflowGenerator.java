@@ -0,0 +1,354 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * تولید گردش‌کارهای مصنوعی بزرگ (10^4 تا 10^6 تسک) با شکل Montage، CyberShake، Epigenomics و Inspiral.
+ * گراف مستقیماً با {@link TaskGraph.Builder} ساخته می‌شود و هیچ فایل XMLی نوشته یا خوانده نمی‌شود.
+ *
+ * زمان اجرای هر نوع کار، حجم ورودی‌های خارجی و حجم دادهٔ هر نوع یال توزیع log-normal دارند که پارامترهای
+ * آن (میانگین و انحراف معیار ln) از فایل‌های DAX همراه پروژه برازش شده است. برای کارهای تجمیعی
+ * (مثل mAdd یا ZipSeis) که فقط یک نمونه در هر فایل دارند، مقدار به ازای هر واحد موازی برازش شده و
+ * در عرض گردش‌کار ضرب می‌شود.
+ */
+public class WorkflowGenerator {
+    private static final Logger LOGGER = Logger.getLogger(WorkflowGenerator.class.getName());
+
+    public enum Shape { MONTAGE, CYBERSHAKE, EPIGENOMICS, INSPIRAL }
+
+    // توزیع log-normal با پارامترهای ln
+    private record LogNormal(double mu, double sigma) {
+        double sample(SplittableRandom random) {
+            return sigma == 0.0 ? Math.exp(mu) : Math.exp(mu + sigma * random.nextGaussian());
+        }
+    }
+
+    // Montage (Montage_25 … Montage_1000): عرض = تعداد mProjectPP، با حدود ۴ mDiffFit به ازای هر تصویر
+    private static final LogNormal M_PROJECT = new LogNormal(2.6077, 0.0178);
+    private static final LogNormal M_PROJECT_INPUT = new LogNormal(15.2559, 0.0);
+    private static final LogNormal M_DIFF_FIT = new LogNormal(2.3598, 0.0095);
+    private static final LogNormal M_DIFF_FIT_INPUT = new LogNormal(5.717, 0.0);
+    private static final LogNormal M_PROJECT_TO_DIFF = new LogNormal(15.9347, 0.0023);
+    private static final LogNormal M_CONCAT_FIT_PER_IMAGE = new LogNormal(-1.1424, 0.0);
+    private static final LogNormal M_DIFF_TO_CONCAT = new LogNormal(12.5305, 0.2892);
+    private static final LogNormal M_BG_MODEL_PER_IMAGE = new LogNormal(-0.6220, 0.0);
+    private static final LogNormal M_CONCAT_TO_BG_MODEL_PER_IMAGE = new LogNormal(6.731, 0.0);
+    private static final LogNormal M_BACKGROUND = new LogNormal(2.3739, 0.0158);
+    private static final LogNormal M_PROJECT_TO_BACKGROUND = new LogNormal(15.9346, 0.0023);
+    private static final LogNormal M_BG_MODEL_TO_BACKGROUND_PER_IMAGE = new LogNormal(3.97, 0.0);
+    private static final LogNormal M_IMG_TBL_PER_IMAGE = new LogNormal(-0.9237, 0.0);
+    private static final LogNormal M_IMG_TBL_INPUT_PER_IMAGE = new LogNormal(5.121, 0.0);
+    private static final LogNormal M_BACKGROUND_TO_IMG_TBL = new LogNormal(15.9345, 0.0025);
+    private static final LogNormal M_ADD_PER_IMAGE = new LogNormal(-0.5115, 0.0);
+    private static final LogNormal M_ADD_INPUT = new LogNormal(5.717, 0.0);
+    private static final LogNormal M_IMG_TBL_TO_ADD_PER_IMAGE = new LogNormal(6.008, 0.0);
+    private static final LogNormal M_SHRINK_PER_IMAGE = new LogNormal(-2.0096, 0.0);
+    private static final LogNormal M_ADD_TO_SHRINK_PER_IMAGE = new LogNormal(15.118, 0.0);
+    private static final LogNormal M_JPEG_PER_IMAGE = new LogNormal(-4.1877, 0.0);
+    private static final LogNormal M_SHRINK_TO_JPEG_PER_IMAGE = new LogNormal(11.208, 0.0);
+
+    // CyberShake (CyberShake_30 … CyberShake_1000): هر ExtractSGT حدود ۱۲۴ SeismogramSynthesis دارد
+    private static final int CYBERSHAKE_SYNTHESES_PER_SITE = 124;
+    private static final LogNormal C_EXTRACT_SGT = new LogNormal(4.811, 0.3263);
+    private static final LogNormal C_EXTRACT_SGT_INPUT = new LogNormal(24.4089, 0.0146);
+    private static final LogNormal C_SYNTHESIS = new LogNormal(3.7307, 0.3001);
+    private static final LogNormal C_SYNTHESIS_INPUT = new LogNormal(15.0974, 0.2965);
+    private static final LogNormal C_SGT_TO_SYNTHESIS = new LogNormal(19.9639, 0.2998);
+    private static final LogNormal C_PEAK_VAL = new LogNormal(0.0359, 0.3049);
+    private static final LogNormal C_SYNTHESIS_TO_PEAK_VAL = new LogNormal(10.0858, 0.0);
+    private static final LogNormal C_ZIP_SEIS_PER_SYNTHESIS = new LogNormal(-3.9699, 0.0);
+    private static final LogNormal C_SYNTHESIS_TO_ZIP_SEIS = new LogNormal(10.0858, 0.0);
+    private static final LogNormal C_ZIP_PSA_PER_SYNTHESIS = new LogNormal(-4.8709, 0.0);
+    private static final LogNormal C_PEAK_VAL_TO_ZIP_PSA = new LogNormal(5.3753, 0.0);
+
+    // Epigenomics (Epigenomics_24 … Epigenomics_997): هر lane حدود ۳۵ زنجیرهٔ چهار مرحله‌ای دارد
+    private static final int EPIGENOMICS_CHUNKS_PER_LANE = 35;
+    private static final LogNormal E_FASTQ_SPLIT = new LogNormal(3.8983, 0.4241);
+    private static final LogNormal E_FASTQ_SPLIT_INPUT = new LogNormal(19.6393, 0.2646);
+    private static final LogNormal E_FILTER_CONTAMS = new LogNormal(0.1865, 0.9986);
+    private static final LogNormal E_SPLIT_TO_FILTER = new LogNormal(16.0864, 0.9727);
+    private static final LogNormal E_SOL2SANGER = new LogNormal(-1.0897, 0.9636);
+    private static final LogNormal E_FILTER_TO_SOL2SANGER = new LogNormal(15.3952, 0.9721);
+    private static final LogNormal E_FASTQ2BFQ = new LogNormal(-0.5984, 1.0239);
+    private static final LogNormal E_SOL2SANGER_TO_FASTQ2BFQ = new LogNormal(15.1247, 1.0291);
+    private static final LogNormal E_MAP = new LogNormal(9.559, 0.4075);
+    private static final LogNormal E_MAP_INPUT = new LogNormal(22.3161, 0.3205);
+    private static final LogNormal E_FASTQ2BFQ_TO_MAP = new LogNormal(13.6829, 1.0443);
+    private static final LogNormal E_LANE_MERGE_PER_CHUNK = new LogNormal(-0.7411, 0.304);
+    private static final LogNormal E_MAP_TO_MERGE = new LogNormal(13.7663, 1.0443);
+    private static final LogNormal E_MERGE_PER_CHUNK = new LogNormal(-0.4219, 0.0);
+    private static final LogNormal E_LANE_MERGE_TO_MERGE = new LogNormal(17.3391, 0.2773);
+    private static final LogNormal E_MAQ_INDEX = new LogNormal(-2.866, 0.8414);
+    private static final LogNormal E_MERGE_TO_MAQ_INDEX_PER_CHUNK = new LogNormal(13.794, 0.0);
+    private static final LogNormal E_PILEUP_PER_CHUNK = new LogNormal(3.204, 0.0);
+    private static final LogNormal E_PILEUP_INPUT = new LogNormal(22.3918, 0.0);
+    private static final LogNormal E_MAQ_INDEX_TO_PILEUP_PER_CHUNK = new LogNormal(9.770, 0.0);
+
+    // Inspiral (Inspiral_30 … Inspiral_1000): هر گروه دو مرحلهٔ Inspiral با یک Thinca در پایان هر مرحله دارد
+    private static final int INSPIRAL_BANKS_PER_GROUP = 12;
+    private static final LogNormal I_TMPLT_BANK = new LogNormal(2.8984, 0.0235);
+    private static final LogNormal I_TMPLT_BANK_INPUT = new LogNormal(17.5171, 0.0007);
+    private static final LogNormal I_INSPIRAL = new LogNormal(6.0916, 0.2954);
+    private static final LogNormal I_INSPIRAL_INPUT = new LogNormal(17.5751, 0.0006);
+    private static final LogNormal I_TMPLT_BANK_TO_INSPIRAL = new LogNormal(13.8024, 0.0188);
+    private static final LogNormal I_THINCA = new LogNormal(1.6724, 0.0462);
+    private static final LogNormal I_INSPIRAL_TO_THINCA = new LogNormal(12.6038, 0.308);
+    private static final LogNormal I_TRIG_BANK = new LogNormal(1.6307, 0.065);
+    private static final LogNormal I_THINCA_TO_TRIG_BANK = new LogNormal(10.3857, 0.3184);
+    private static final LogNormal I_TRIG_BANK_TO_INSPIRAL = new LogNormal(9.4174, 0.2834);
+
+    private final SimulationContext context;
+    private final SplittableRandom random;
+
+    // ورودی‌های تسک بعدی تا لحظهٔ اضافه شدن آن جمع می‌شوند تا حجم کل ورودی تسک از قبل معلوم باشد
+    private TaskGraph.Builder builder;
+    private int[] pendingParents = new int[16];
+    private long[] pendingBytes = new long[16];
+    private int pendingCount;
+    private long pendingInputBytes;
+
+    public WorkflowGenerator(SimulationContext context, long seed) {
+        this.context = context;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * یک گردش‌کار با شکل داده‌شده و نزدیک‌ترین تعداد تسک به taskCount که ساختار آن شکل اجازه می‌دهد می‌سازد.
+     * زمان رسیدن گردش‌کار زمان جاری context است و مهلت آن مثل گردش‌کارهای DAX از مسیر بحرانی محاسبه می‌شود.
+     */
+    public Workflow generate(Shape shape, int taskCount) {
+        Workflow workflow = new Workflow("wf-" + context.reserveWorkflowIds(1), context.getCurrentTime(), 0.0);
+        builder = new TaskGraph.Builder();
+        switch (shape) {
+            case MONTAGE -> montage(taskCount);
+            case CYBERSHAKE -> cyberShake(taskCount);
+            case EPIGENOMICS -> epigenomics(taskCount);
+            case INSPIRAL -> inspiral(taskCount);
+        }
+        builder.build(workflow, Workflow.transferRate(context));
+        builder = null;
+        Workflow.initialize(workflow, context);
+        return workflow;
+    }
+
+    // n ≈ 6p + 4: p × mProjectPP، (4p − 2) × mDiffFit، p × mBackground و شش کار تجمیعی
+    private void montage(int taskCount) {
+        int images = units(taskCount, Shape.MONTAGE);
+        int[] projects = new int[images];
+        for (int i = 0; i < images; i++) {
+            projects[i] = external(M_PROJECT_INPUT).add(M_PROJECT.sample(random));
+        }
+        // هر mDiffFit هم‌پوشانی یک تصویر با یکی از چهار همسایهٔ بعدی‌اش را محاسبه می‌کند
+        int[] diffs = new int[4 * images - 2];
+        for (int t = 0; t < diffs.length; t++) {
+            int a = t % images;
+            int b = (a + 1 + t / images) % images;
+            diffs[t] = external(M_DIFF_FIT_INPUT).input(projects[a], M_PROJECT_TO_DIFF)
+                    .input(projects[b], M_PROJECT_TO_DIFF).add(M_DIFF_FIT.sample(random));
+        }
+        for (int diff : diffs) {
+            input(diff, M_DIFF_TO_CONCAT);
+        }
+        int concatFit = add(images * M_CONCAT_FIT_PER_IMAGE.sample(random));
+        int bgModel = input(concatFit, M_CONCAT_TO_BG_MODEL_PER_IMAGE, images).add(images * M_BG_MODEL_PER_IMAGE.sample(random));
+        int[] backgrounds = new int[images];
+        for (int i = 0; i < images; i++) {
+            backgrounds[i] = input(projects[i], M_PROJECT_TO_BACKGROUND)
+                    .input(bgModel, M_BG_MODEL_TO_BACKGROUND_PER_IMAGE, images).add(M_BACKGROUND.sample(random));
+        }
+        for (int background : backgrounds) {
+            input(background, M_BACKGROUND_TO_IMG_TBL);
+        }
+        int imgTbl = external(M_IMG_TBL_INPUT_PER_IMAGE, images).add(images * M_IMG_TBL_PER_IMAGE.sample(random));
+        int mAdd = external(M_ADD_INPUT).input(imgTbl, M_IMG_TBL_TO_ADD_PER_IMAGE, images).add(images * M_ADD_PER_IMAGE.sample(random));
+        int shrink = input(mAdd, M_ADD_TO_SHRINK_PER_IMAGE, images).add(images * M_SHRINK_PER_IMAGE.sample(random));
+        input(shrink, M_SHRINK_TO_JPEG_PER_IMAGE, images).add(images * M_JPEG_PER_IMAGE.sample(random));
+    }
+
+    // n = s × (1 + 2c) + 2: هر سایت یک ExtractSGT و c جفت SeismogramSynthesis → PeakValCalcOkaya
+    private void cyberShake(int taskCount) {
+        int sites = units(taskCount, Shape.CYBERSHAKE);
+        int syntheses = sites * CYBERSHAKE_SYNTHESES_PER_SITE;
+        int[] synthesisTasks = new int[syntheses];
+        int[] peakValTasks = new int[syntheses];
+        for (int s = 0; s < sites; s++) {
+            int extractSgt = external(C_EXTRACT_SGT_INPUT).add(C_EXTRACT_SGT.sample(random));
+            for (int k = 0; k < CYBERSHAKE_SYNTHESES_PER_SITE; k++) {
+                int j = s * CYBERSHAKE_SYNTHESES_PER_SITE + k;
+                synthesisTasks[j] = external(C_SYNTHESIS_INPUT).input(extractSgt, C_SGT_TO_SYNTHESIS).add(C_SYNTHESIS.sample(random));
+                peakValTasks[j] = input(synthesisTasks[j], C_SYNTHESIS_TO_PEAK_VAL).add(C_PEAK_VAL.sample(random));
+            }
+        }
+        for (int synthesis : synthesisTasks) {
+            input(synthesis, C_SYNTHESIS_TO_ZIP_SEIS);
+        }
+        add(syntheses * C_ZIP_SEIS_PER_SYNTHESIS.sample(random));
+        for (int peakVal : peakValTasks) {
+            input(peakVal, C_PEAK_VAL_TO_ZIP_PSA);
+        }
+        add(syntheses * C_ZIP_PSA_PER_SYNTHESIS.sample(random));
+    }
+
+    // n = L × (4c + 2) + 3: هر lane یک fastqSplit، c زنجیرهٔ چهار کاره و یک mapMerge؛ سپس mapMerge، maqindex و pileup
+    private void epigenomics(int taskCount) {
+        int lanes = units(taskCount, Shape.EPIGENOMICS);
+        int chunks = lanes * EPIGENOMICS_CHUNKS_PER_LANE;
+        int[] laneMerges = new int[lanes];
+        int[] maps = new int[EPIGENOMICS_CHUNKS_PER_LANE];
+        for (int l = 0; l < lanes; l++) {
+            int split = external(E_FASTQ_SPLIT_INPUT).add(E_FASTQ_SPLIT.sample(random));
+            for (int k = 0; k < EPIGENOMICS_CHUNKS_PER_LANE; k++) {
+                int filter = input(split, E_SPLIT_TO_FILTER).add(E_FILTER_CONTAMS.sample(random));
+                int sol2sanger = input(filter, E_FILTER_TO_SOL2SANGER).add(E_SOL2SANGER.sample(random));
+                int fastq2bfq = input(sol2sanger, E_SOL2SANGER_TO_FASTQ2BFQ).add(E_FASTQ2BFQ.sample(random));
+                maps[k] = external(E_MAP_INPUT).input(fastq2bfq, E_FASTQ2BFQ_TO_MAP).add(E_MAP.sample(random));
+            }
+            for (int map : maps) {
+                input(map, E_MAP_TO_MERGE);
+            }
+            laneMerges[l] = add(EPIGENOMICS_CHUNKS_PER_LANE * E_LANE_MERGE_PER_CHUNK.sample(random));
+        }
+        for (int laneMerge : laneMerges) {
+            input(laneMerge, E_LANE_MERGE_TO_MERGE);
+        }
+        int merge = add(chunks * E_MERGE_PER_CHUNK.sample(random));
+        int maqIndex = input(merge, E_MERGE_TO_MAQ_INDEX_PER_CHUNK, chunks).add(E_MAQ_INDEX.sample(random));
+        external(E_PILEUP_INPUT).input(maqIndex, E_MAQ_INDEX_TO_PILEUP_PER_CHUNK, chunks).add(chunks * E_PILEUP_PER_CHUNK.sample(random));
+    }
+
+    // n = g × (4m + 2): TmpltBank → Inspiral → Thinca → TrigBank → Inspiral → Thinca
+    private void inspiral(int taskCount) {
+        int m = INSPIRAL_BANKS_PER_GROUP;
+        int groups = units(taskCount, Shape.INSPIRAL);
+        int[] inspirals = new int[m];
+        for (int g = 0; g < groups; g++) {
+            for (int k = 0; k < m; k++) {
+                int tmpltBank = external(I_TMPLT_BANK_INPUT).add(I_TMPLT_BANK.sample(random));
+                inspirals[k] = external(I_INSPIRAL_INPUT).input(tmpltBank, I_TMPLT_BANK_TO_INSPIRAL).add(I_INSPIRAL.sample(random));
+            }
+            for (int inspiral : inspirals) {
+                input(inspiral, I_INSPIRAL_TO_THINCA);
+            }
+            int thinca = add(I_THINCA.sample(random));
+            for (int k = 0; k < m; k++) {
+                int trigBank = input(thinca, I_THINCA_TO_TRIG_BANK).add(I_TRIG_BANK.sample(random));
+                inspirals[k] = external(I_INSPIRAL_INPUT).input(trigBank, I_TRIG_BANK_TO_INSPIRAL).add(I_INSPIRAL.sample(random));
+            }
+            for (int inspiral : inspirals) {
+                input(inspiral, I_INSPIRAL_TO_THINCA);
+            }
+            add(I_THINCA.sample(random));
+        }
+    }
+
+    // ساختار هر شکل: n ≈ fixedTasks + units × tasksPerUnit با حداقل minimumUnits واحد تکرارشونده
+    private record Layout(int fixedTasks, int tasksPerUnit, int minimumUnits) {}
+
+    private static Layout layout(Shape shape) {
+        return switch (shape) {
+            case MONTAGE -> new Layout(4, 6, 5);
+            case CYBERSHAKE -> new Layout(2, 1 + 2 * CYBERSHAKE_SYNTHESES_PER_SITE, 1);
+            case EPIGENOMICS -> new Layout(3, 4 * EPIGENOMICS_CHUNKS_PER_LANE + 2, 1);
+            case INSPIRAL -> new Layout(0, 4 * INSPIRAL_BANKS_PER_GROUP + 2, 1);
+        };
+    }
+
+    /**
+     * کوچک‌ترین taskCount که generate برای این شکل می‌پذیرد (تعداد واحدها به نزدیک‌ترین عدد گرد می‌شود).
+     */
+    public static int minimumTaskCount(Shape shape) {
+        Layout layout = layout(shape);
+        return layout.fixedTasks() + (int) Math.ceil((layout.minimumUnits() - 0.5) * layout.tasksPerUnit());
+    }
+
+    // تعداد واحدهای تکرارشوندهٔ شکل؛ گردش‌کارهای خیلی کوچک‌تر از یک شکل کامل پذیرفته نمی‌شوند
+    private static int units(int taskCount, Shape shape) {
+        Layout layout = layout(shape);
+        int units = (int) Math.round((double) (taskCount - layout.fixedTasks()) / layout.tasksPerUnit());
+        if (units < layout.minimumUnits()) {
+            throw new IllegalArgumentException("Task count too small for a " + shape + " workflow (minimum "
+                    + minimumTaskCount(shape) + " tasks)");
+        }
+        return units;
+    }
+
+    private WorkflowGenerator input(int parent, LogNormal bytes) {
+        return input(parent, bytes, 1);
+    }
+
+    private WorkflowGenerator input(int parent, LogNormal bytes, int scale) {
+        if (pendingCount == pendingParents.length) {
+            pendingParents = Arrays.copyOf(pendingParents, pendingCount * 2);
+            pendingBytes = Arrays.copyOf(pendingBytes, pendingCount * 2);
+        }
+        long size = Math.round(scale * bytes.sample(random));
+        pendingParents[pendingCount] = parent;
+        pendingBytes[pendingCount] = size;
+        pendingCount++;
+        pendingInputBytes += size;
+        return this;
+    }
+
+    // ورودی‌ای که هیچ تسکی در گردش‌کار تولیدش نمی‌کند
+    private WorkflowGenerator external(LogNormal bytes) {
+        return external(bytes, 1);
+    }
+
+    private WorkflowGenerator external(LogNormal bytes, int scale) {
+        pendingInputBytes += Math.round(scale * bytes.sample(random));
+        return this;
+    }
+
+    // تسک را با ورودی‌های جمع‌شده اضافه می‌کند و اندیس آن را برمی‌گرداند
+    private int add(double runtime) {
+        int index = Workflow.addTask(builder, taskId(builder.size()), runtime, pendingInputBytes, context);
+        for (int k = 0; k < pendingCount; k++) {
+            builder.setEdgeBytes(builder.addEdge(pendingParents[k], index), pendingBytes[k]);
+        }
+        pendingCount = 0;
+        pendingInputBytes = 0;
+        return index;
+    }
+
+    // هم‌قالب شناسه‌های DAX (ID00000)
+    private static String taskId(int index) {
+        String digits = Integer.toString(index);
+        return digits.length() >= 5 ? "ID" + digits : "ID" + "00000".substring(digits.length()) + digits;
+    }
+
+    /**
+     * تولید یک گردش‌کار و اجرای شبیه‌سازی روی آن برای اندازه‌گیری توان عملیاتی زمان‌بند.
+     * آرگومان‌ها: shape taskCount [seed] [configFile]
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: WorkflowGenerator <montage|cybershake|epigenomics|inspiral> <taskCount> [seed] [configFile]");
+            return;
+        }
+        Shape shape = Shape.valueOf(args[0].toUpperCase(Locale.ROOT));
+        int taskCount = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        String configFile = args.length > 3 ? args[3] : "..\\resources\\simulation_config.xml";
+
+        NOSFScheduler.setLogLevel(Level.OFF);
+        LOGGER.setLevel(Level.INFO);
+        NOSFScheduler scheduler = new NOSFScheduler(configFile);
+
+        long start = System.nanoTime();
+        Workflow workflow = new WorkflowGenerator(scheduler.getContext(), seed).generate(shape, taskCount);
+        long generated = System.nanoTime();
+        int tasks = workflow.getGraph().size();
+        LOGGER.info(String.format("Generated %s workflow: %d tasks, %d edges in %d ms",
+                shape, tasks, workflow.getGraph().preds.length, (generated - start) / 1_000_000));
+
+        scheduler.submitWorkflow(workflow);
+        SimulationResult result = scheduler.runSimulation();
+        double seconds = (System.nanoTime() - generated) / 1e9;
+        LOGGER.info(String.format("Simulated in %.2f s (%.0f tasks/s): makespan=%.2f, billing=$%.2f, VMs=%d",
+                seconds, tasks / seconds, result.getMakespan(), result.getBillingCost(), result.getVmCount()));
+    }
+}
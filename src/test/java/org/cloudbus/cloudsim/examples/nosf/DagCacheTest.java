@@ -0,0 +1,131 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ذخیره و بازخوانی گراف‌های پارس‌شده در DagCache.
+ */
+public class DagCacheTest {
+    private static final String CONFIG = "src/main/resources/simulation_config.xml";
+    private static final Path MONTAGE = Path.of("Workflows/Montage_25.xml");
+
+    @TempDir
+    Path cacheDir;
+
+    private SimulationContext newContext() {
+        return SimulationContext.fromConfig(CONFIG).toBuilder()
+                .dagCacheDir(cacheDir.toString()).traceFile(null).metricsFile(null)
+                .build();
+    }
+
+    @Test
+    public void storedGraphLoadsBackEqual() throws Exception {
+        SimulationContext context = newContext();
+        // کش خالی است، پس DAX پارس و ورودی کش نوشته می‌شود
+        Workflow parsed = Workflow.load(MONTAGE.toString(), 0.0, context);
+        Workflow cached = new DagCache(cacheDir).load(DagCache.contentHash(MONTAGE), "wf-cached", 0.0, context);
+        assertNotNull(cached);
+
+        TaskGraph expected = parsed.getGraph();
+        TaskGraph actual = cached.getGraph();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getId(i), actual.getId(i));
+            assertEquals(expected.getMeanExecutionTime(i), actual.getMeanExecutionTime(i));
+            assertEquals(expected.getVarianceExecutionTime(i), actual.getVarianceExecutionTime(i));
+            assertEquals(expected.getDataTransferTime(i), actual.getDataTransferTime(i));
+
+            assertEquals(expected.getPredecessorCount(i), actual.getPredecessorCount(i));
+            for (int k = 0; k < expected.getPredecessorCount(i); k++) {
+                assertEquals(expected.getPredecessor(i, k), actual.getPredecessor(i, k));
+                assertEquals(expected.getPredecessorBytes(i, k), actual.getPredecessorBytes(i, k));
+            }
+            assertEquals(expected.getSuccessorCount(i), actual.getSuccessorCount(i));
+            for (int k = 0; k < expected.getSuccessorCount(i); k++) {
+                assertEquals(expected.getSuccessor(i, k), actual.getSuccessor(i, k));
+                assertEquals(expected.getSuccessorBytes(i, k), actual.getSuccessorBytes(i, k));
+            }
+        }
+        assertEquals(parsed.getCriticalPathLength(), cached.getCriticalPathLength());
+    }
+
+    @Test
+    public void missingEntryIsAMiss() {
+        assertNull(new DagCache(cacheDir).load("0123456789abcdef", "wf-missing", 0.0, newContext()));
+    }
+
+    // ورودی Montage_25 را می‌نویسد و مسیرش را برمی‌گرداند
+    private Path storeEntry() throws Exception {
+        Workflow.load(MONTAGE.toString(), 0.0, newContext());
+        Path entry = cacheDir.resolve(DagCache.contentHash(MONTAGE) + ".dag");
+        assertTrue(Files.isRegularFile(entry));
+        return entry;
+    }
+
+    private Workflow loadEntry() throws Exception {
+        return new DagCache(cacheDir).load(DagCache.contentHash(MONTAGE), "wf-cached", 0.0, newContext());
+    }
+
+    @Test
+    public void truncatedEntryIsAMiss() throws Exception {
+        Path entry = storeEntry();
+        byte[] bytes = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length - 5));
+        assertNull(loadEntry());
+    }
+
+    @Test
+    public void entryWithTrailingBytesIsAMiss() throws Exception {
+        Path entry = storeEntry();
+        Files.write(entry, new byte[]{1, 2, 3, 4}, StandardOpenOption.APPEND);
+        assertNull(loadEntry());
+    }
+
+    @Test
+    public void entryWithOutOfRangeNeighbourIsAMiss() throws Exception {
+        Path entry = storeEntry();
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(entry));
+        int taskCount = bytes.getInt(8);
+        int edgeCount = bytes.getInt(12);
+        // آخرین شناسهٔ CSR فرزندان درست پیش از دو آرایهٔ long حجم یال‌ها قرار دارد
+        bytes.putInt(bytes.capacity() - 2 * edgeCount * Long.BYTES - Integer.BYTES, taskCount);
+        Files.write(entry, bytes.array());
+        assertNull(loadEntry());
+    }
+
+    @Test
+    public void entryWithDecreasingOffsetsIsAMiss() throws Exception {
+        Path entry = storeEntry();
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(entry));
+        int taskCount = bytes.getInt(8);
+        int edgeCount = bytes.getInt(12);
+        // آفست دوم CSR فرزندان؛ تسک اول گراف Montage فرزند دارد پس مقدار منفی ترتیب را می‌شکند
+        int succOffsets = bytes.capacity() - 2 * edgeCount * Long.BYTES - edgeCount * Integer.BYTES
+                - (taskCount + 1) * Integer.BYTES;
+        bytes.putInt(succOffsets + Integer.BYTES, -1);
+        Files.write(entry, bytes.array());
+        assertNull(loadEntry());
+    }
+
+    @Test
+    public void failedStoreLeavesNoTemporaryFile() throws Exception {
+        // پوشهٔ غیرخالی هم‌نام ورودی، جابه‌جایی فایل موقت را ناموفق می‌کند
+        Path entry = cacheDir.resolve(DagCache.contentHash(MONTAGE) + ".dag");
+        Files.createDirectories(entry.resolve("blocker"));
+        assertNotNull(Workflow.load(MONTAGE.toString(), 0.0, newContext()));
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(List.of(entry), files.toList());
+        }
+    }
+}
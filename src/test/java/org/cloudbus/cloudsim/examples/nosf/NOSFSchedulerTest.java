@@ -0,0 +1,59 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * پیش‌پردازش NOSF (EST، LCT) روی گردش‌کار پنج‌تسکی Workflows/Test_5.xml.
+ * ساختار: 1 → {2، 3، 4} → 5؛ فایل‌های این DAX همه ورودی‌اند، پس روی یال‌ها داده‌ای منتقل نمی‌شود.
+ */
+public class NOSFSchedulerTest {
+    private static final String CONFIG = "src/main/resources/simulation_config.xml";
+
+    @Test
+    public void preprocessingComputesEstAndLctOnTest5() throws Exception {
+        SimulationContext context = SimulationContext.fromConfig(CONFIG).toBuilder()
+                .varianceFactorAlpha(0.5).deadlineFactorBeta(2.0)
+                .dagCacheDir(null).traceFile(null).metricsFile(null)
+                .build();
+        NOSFScheduler scheduler = new NOSFScheduler(context);
+        Workflow workflow = Workflow.load("Workflows/Test_5.xml", 0.0, context);
+        scheduler.preprocessWorkflow(workflow);
+
+        // مسیر بحرانی با زمان اجرای میانگین: 1 → 2 → 5 = 7000 و مهلت = beta × 7000 = 14000
+        // EST و LCT با زمان اجرای تخمینی w = runtime + alpha × runtime: 9000، 1050، 300، 150، 450
+        assertEquals(7000, workflow.getCriticalPathLength(), 1e-9);
+        assertEquals(14000, workflow.getDeadline(), 1e-9);
+
+        assertEquals(0, workflow.getTaskById("1").getEarliestStartTime(), 1e-9);
+        assertEquals(9000, workflow.getTaskById("2").getEarliestStartTime(), 1e-9);
+        assertEquals(9000, workflow.getTaskById("3").getEarliestStartTime(), 1e-9);
+        assertEquals(9000, workflow.getTaskById("4").getEarliestStartTime(), 1e-9);
+        assertEquals(10050, workflow.getTaskById("5").getEarliestStartTime(), 1e-9);
+
+        assertEquals(12500, workflow.getTaskById("1").getLatestCompletionTime(), 1e-9);
+        assertEquals(13550, workflow.getTaskById("2").getLatestCompletionTime(), 1e-9);
+        assertEquals(13550, workflow.getTaskById("3").getLatestCompletionTime(), 1e-9);
+        assertEquals(13550, workflow.getTaskById("4").getLatestCompletionTime(), 1e-9);
+        assertEquals(14000, workflow.getTaskById("5").getLatestCompletionTime(), 1e-9);
+    }
+
+    @Test
+    public void workflowMakespanIsMeasuredFromArrival() throws Exception {
+        SimulationContext context = SimulationContext.fromConfig(CONFIG).toBuilder()
+                .retainCompletedTasks(true)
+                .dagCacheDir(null).traceFile(null).metricsFile(null)
+                .build();
+        NOSFScheduler scheduler = new NOSFScheduler(context);
+        Workflow workflow = Workflow.load("Workflows/Test_5.xml", 1000.0, context);
+        scheduler.submitWorkflow(workflow);
+        SimulationResult result = scheduler.runSimulation();
+
+        // makespan گردش‌کار از لحظهٔ ورود است؛ makespan اجرا و مهلت هر دو زمان مطلق‌اند
+        assertTrue(workflow.getCompletionTime() > 1000.0);
+        assertEquals(workflow.getCompletionTime() - 1000.0, workflow.getMakespan(), 1e-9);
+        assertEquals(workflow.getCompletionTime(), result.getMakespan(), 1e-9);
+        assertEquals(workflow.getCompletionTime() > workflow.getDeadline() ? 1 : 0, result.getDeadlineViolations());
+    }
+}
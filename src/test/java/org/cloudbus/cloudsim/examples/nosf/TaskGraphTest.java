@@ -0,0 +1,138 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ساختار CSR گراف تسک‌ها.
+ */
+public class TaskGraphTest {
+    private static final String CONFIG = "src/main/resources/simulation_config.xml";
+    private static final Path MONTAGE = Path.of("Workflows/Montage_25.xml");
+
+    @TempDir
+    Path tempDir;
+
+    private SimulationContext newContext(String dagCacheDir) {
+        return SimulationContext.fromConfig(CONFIG).toBuilder()
+                .dagCacheDir(dagCacheDir).traceFile(null).metricsFile(null)
+                .build();
+    }
+
+    @Test
+    public void csrArraysFromDaxAndCacheAreEqual() throws Exception {
+        SimulationContext context = newContext(tempDir.toString());
+        TaskGraph parsed = Workflow.load(MONTAGE.toString(), 0.0, context).getGraph();
+        TaskGraph cached = new DagCache(tempDir).load(DagCache.contentHash(MONTAGE), "wf-cached", 0.0, context).getGraph();
+
+        assertArrayEquals(parsed.predOffsets, cached.predOffsets);
+        assertArrayEquals(parsed.preds, cached.preds);
+        assertArrayEquals(parsed.succOffsets, cached.succOffsets);
+        assertArrayEquals(parsed.succs, cached.succs);
+        assertArrayEquals(parsed.predBytes, cached.predBytes);
+        assertArrayEquals(parsed.succBytes, cached.succBytes);
+    }
+
+    @Test
+    public void successorCsrMirrorsPredecessorCsr() throws Exception {
+        TaskGraph graph = Workflow.load(MONTAGE.toString(), 0.0, newContext(null)).getGraph();
+        int edges = 0;
+        for (int child = 0; child < graph.size(); child++) {
+            for (int k = 0; k < graph.getPredecessorCount(child); k++) {
+                int parent = graph.getPredecessor(child, k);
+                int s = indexOfSuccessor(graph, parent, child);
+                assertTrue(s >= 0, "edge " + parent + " -> " + child + " is missing from the successor CSR");
+                assertEquals(graph.getPredecessorBytes(child, k), graph.getSuccessorBytes(parent, s));
+                edges++;
+            }
+        }
+        assertEquals(graph.preds.length, edges);
+        assertEquals(graph.succs.length, edges);
+    }
+
+    private static int indexOfSuccessor(TaskGraph graph, int parent, int child) {
+        for (int k = 0; k < graph.getSuccessorCount(parent); k++) {
+            if (graph.getSuccessor(parent, k) == child) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    // a سه فایل تولید می‌کند؛ d هم خروجی هم‌نام x دارد ولی فقط پدر e است. z ورودی خارجی است.
+    private static final String FILES_DAX = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <adag xmlns="http://pegasus.isi.edu/schema/DAX" version="2.1">
+              <job id="a" runtime="10">
+                <uses file="x" link="output" size="100"/>
+                <uses file="y" link="output" size="50"/>
+                <uses file="w" link="output" size="20"/>
+              </job>
+              <job id="d" runtime="10">
+                <uses file="x" link="output" size="30"/>
+              </job>
+              <job id="b" runtime="10">
+                <uses file="x" link="input" size="100"/>
+                <uses file="w" link="input" size="20"/>
+                <uses file="z" link="input" size="70"/>
+              </job>
+              <job id="c" runtime="10">
+                <uses file="y" link="input" size="50"/>
+              </job>
+              <job id="e" runtime="10">
+                <uses file="x" link="input" size="100"/>
+              </job>
+              <child ref="b"><parent ref="a"/></child>
+              <child ref="c"><parent ref="a"/></child>
+              <child ref="e"><parent ref="a"/><parent ref="d"/></child>
+            </adag>
+            """;
+
+    @Test
+    public void edgeBytesAreTheParentsOutputsConsumedByTheChild() throws Exception {
+        Path dax = tempDir.resolve("files.xml");
+        Files.writeString(dax, FILES_DAX);
+        SimulationContext context = newContext(null);
+        Workflow workflow = Workflow.load(dax.toString(), 0.0, context);
+        TaskGraph graph = workflow.getGraph();
+        double transferRate = context.getBandwidthMbps() * 1_000_000.0;
+
+        assertEquals(120, edgeBytes(workflow, "a", "b"));
+        assertEquals(50, edgeBytes(workflow, "a", "c"));
+        assertEquals(100, edgeBytes(workflow, "a", "e"));
+        assertEquals(30, edgeBytes(workflow, "d", "e"));
+        assertEquals(120 / transferRate, graph.getTransferTime(index(workflow, "a"), index(workflow, "b")));
+        assertEquals(30 / transferRate, graph.getTransferTime(index(workflow, "d"), index(workflow, "e")));
+    }
+
+    @Test
+    public void transferBetweenUnconnectedTasksIsZero() throws Exception {
+        Path dax = tempDir.resolve("files.xml");
+        Files.writeString(dax, FILES_DAX);
+        Workflow workflow = Workflow.load(dax.toString(), 0.0, newContext(null));
+        TaskGraph graph = workflow.getGraph();
+
+        // هم‌نیاها، جهت معکوس یال، و تولیدکنندهٔ هم‌نامی که پدر نیست
+        assertEquals(0.0, graph.getTransferTime(index(workflow, "b"), index(workflow, "c")));
+        assertEquals(0.0, graph.getTransferTime(index(workflow, "b"), index(workflow, "a")));
+        assertEquals(0.0, graph.getTransferTime(index(workflow, "d"), index(workflow, "b")));
+        assertEquals(0.0, workflow.getTaskById("b").getDataTransferTime(workflow.getTaskById("c")));
+    }
+
+    private static int index(Workflow workflow, String id) {
+        return workflow.getTaskById(id).getIndex();
+    }
+
+    private static long edgeBytes(Workflow workflow, String parentId, String childId) {
+        TaskGraph graph = workflow.getGraph();
+        int parent = index(workflow, parentId);
+        int s = indexOfSuccessor(graph, parent, index(workflow, childId));
+        assertTrue(s >= 0, "no edge " + parentId + " -> " + childId);
+        return graph.getSuccessorBytes(parent, s);
+    }
+}
@@ -0,0 +1,86 @@
+package org.cloudbus.cloudsim.examples.nosf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * انتخاب VM موجود در findSuitableVM و دور دسته‌ای CandidateRound: ترتیب پیمایش ایندکس (زمان در دسترس بودن)
+ * نباید روی نتیجه اثر بگذارد و در تساوی کامل، VM قدیمی‌تر (شمارهٔ کمتر) انتخاب می‌شود.
+ */
+public class VMFactoryTest {
+    private static final String CONFIG = "src/main/resources/simulation_config.xml";
+
+    private VMFactory vmFactory;
+    private Workflow workflow;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // alpha = 0 تا زمان اجرای پیش‌بینی‌شده قطعی باشد
+        SimulationContext context = SimulationContext.fromConfig(CONFIG).toBuilder()
+                .varianceFactorAlpha(0.0)
+                .dagCacheDir(null).traceFile(null).metricsFile(null)
+                .build();
+        vmFactory = new VMFactory(context);
+        workflow = Workflow.load("Workflows/Test_5.xml", 0.0, context);
+    }
+
+    @Test
+    public void equalCandidatesAreBrokenByVmSequence() {
+        Task task = workflow.getTaskById("3");
+        task.setSubDeadline(1000);
+        Vm older = vmFactory.leaseVM(task, 0.0);
+        Vm newer = vmFactory.leaseVM(task, 0.0);
+        assertTrue(older.getSequence() < newer.getSequence());
+
+        // VM قدیمی‌تر بلافاصله پس از بوت یک تسک کوتاه می‌گیرد: بیکاری‌اش صفر می‌ماند ولی در ایندکس بعد از VM جدید می‌آید
+        Task busy = workflow.getTaskById("2");
+        busy.setStartTime(older.getBootTime());
+        busy.setExecutionTime(10);
+        busy.setCompletionTime(older.getBootTime() + 10);
+        vmFactory.assignTask(older, busy, 0.0);
+        assertEquals(older.getTotalIdleTime(), newer.getTotalIdleTime());
+
+        // هر دو VM تسک را در دورهٔ صورتحساب پرداخت‌شده تمام می‌کنند، پس رشد هزینه هم برابر (صفر) است
+        assertSame(older, vmFactory.findSuitableVM(task, 0.0));
+        assertSame(older, vmFactory.openRound(0.0).findOrCreateVM(task));
+    }
+
+    @Test
+    public void vmsFreeAfterTheSubDeadlineAreNotSelected() {
+        Task task = workflow.getTaskById("3");
+        task.setSubDeadline(1000);
+        Vm vm = vmFactory.leaseVM(task, 0.0);
+
+        // صف VM تا بعد از زیرمهلت پر است، پس VM موجودی برای تسک مناسب نیست
+        Task busy = workflow.getTaskById("2");
+        busy.setStartTime(vm.getBootTime());
+        busy.setExecutionTime(2000);
+        busy.setCompletionTime(vm.getBootTime() + 2000);
+        vmFactory.assignTask(vm, busy, 0.0);
+
+        assertNull(vmFactory.findSuitableVM(task, 0.0));
+    }
+
+    // تسک 3 (runtime = 200): روی vm-type-1 (8000) در 200 ثانیه، vm-type-2 (6666) در 240 و vm-type-5 (5000) در 320
+    @Test
+    public void preProvisionedTypeIsCheckedFromThePredictedReadyTime() {
+        Task task = workflow.getTaskById("3");
+        task.setSubDeadline(500);
+        // شروع پس از بوت: ارزان‌ترین نوع (vm-type-5) تا 325 تمام می‌کند
+        assertEquals("vm-type-5", vmFactory.preProvisionVM(task, 0.0, 0.0, Double.POSITIVE_INFINITY).getTypeId());
+        // شروع در 300: فقط vm-type-1 تا 500 تمام می‌کند
+        assertEquals("vm-type-1", vmFactory.preProvisionVM(task, 0.0, 300.0, Double.POSITIVE_INFINITY).getTypeId());
+    }
+
+    @Test
+    public void preProvisionFallsBackToATypeWithinBudget() {
+        Task task = workflow.getTaskById("3");
+        task.setSubDeadline(210);
+        // فقط vm-type-1 (4.5$ در ساعت) در زیرمهلت جا می‌شود؛ با بودجهٔ کمتر، سریع‌ترین نوع در بودجه اجاره می‌شود
+        assertEquals("vm-type-1", vmFactory.preProvisionVM(task, 0.0, 0.0, Double.POSITIVE_INFINITY).getTypeId());
+        assertEquals("vm-type-2", vmFactory.preProvisionVM(task, 0.0, 0.0, 4.2).getTypeId());
+        assertNull(vmFactory.preProvisionVM(task, 0.0, 0.0, 1.0));
+    }
+}